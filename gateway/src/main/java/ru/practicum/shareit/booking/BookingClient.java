@@ -1,36 +1,83 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingInDto;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerLoadBalancer;
+import ru.practicum.shareit.client.UpstreamGuard;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+@Slf4j
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final Pattern BOOKING_PATH = Pattern.compile("^/bookings/(\\d+)$");
+    private static final long MAX_KNOWN_BOOKINGS = 100_000;
+
+    private final ObjectMapper objectMapper;
+    // ID вещи по ID брони из ответов на создание брони: запросы к брони направляются на узел ее вещи.
+    private final Cache<Long, Long> bookingItems = Caffeine.newBuilder()
+            .maximumSize(MAX_KNOWN_BOOKINGS)
+            .build();
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+                         AsyncHttpTransport asyncTransport, RequestCoalescer coalescer, ResponseCache responseCache,
+                         UpstreamGuard upstreamGuard, ServerLoadBalancer loadBalancer, ObjectMapper objectMapper) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                asyncTransport,
+                coalescer,
+                responseCache,
+                upstreamGuard,
+                loadBalancer
         );
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Новая бронь направляется на узел вещи из тела запроса, запросы к брони - на узел ее вещи,
+     * если бронь создана через этот шлюз. Остальные идут на любой узел: маршрут по вещи нужен только
+     * для локальности, порядок подтверждений между узлами обеспечивает shareit.booking.lock-mode=db.
+     */
+    @Override
+    protected Long routingKey(HttpMethod method, URI uri, Object body) {
+        if (body instanceof BookingInDto) {
+            return ((BookingInDto) body).getItemId();
+        }
+        Matcher matcher = BOOKING_PATH.matcher(uri.getPath());
+        return matcher.matches() ? bookingItems.getIfPresent(Long.valueOf(matcher.group(1))) : null;
     }
 
-    public ResponseEntity<Object> add(Long bookerId, BookingInDto bookingInDto) {
-        return post("", bookerId, bookingInDto);
+    public CompletableFuture<ResponseEntity<Object>> add(Long bookerId, BookingInDto bookingInDto) {
+        return post("", bookerId, bookingInDto).thenApply(this::rememberItem);
     }
 
-    public ResponseEntity<Object> confirm(Long bookingId, Boolean approved, Long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> confirm(Long bookingId, Boolean approved, Long ownerId) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
@@ -38,25 +85,47 @@ public class BookingClient extends BaseClient {
         return patch(path, ownerId, parameters, null);
     }
 
-    public ResponseEntity<Object> find(Long bookingId, Long requesterId) {
+    public CompletableFuture<ResponseEntity<Object>> find(Long bookingId, Long requesterId) {
         return get("/" + bookingId, requesterId);
     }
 
-    public ResponseEntity<Object> findByUser(String state, Long bookerId, Long from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> findByUser(String state, Long bookerId, Long from, Integer size,
+                                                                String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", bookerId, parameters);
+        ));
+        return get(withCursor("?state={state}&from={from}&size={size}", parameters, cursor), bookerId, parameters);
     }
 
-    public ResponseEntity<Object> findItemsForUser(String state, Long ownerId, Long from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> findItemsForUser(String state, Long ownerId, Long from,
+                                                                      Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+        ));
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", parameters, cursor), ownerId, parameters);
+    }
+
+    /**
+     * Запоминает вещь созданной брони. Это единственный ответ, который шлюз разбирает: остальные ответы
+     * о бронях передаются клиенту байтами сервера без разбора JSON.
+     */
+    private ResponseEntity<Object> rememberItem(ResponseEntity<Object> response) {
+        if (!response.getStatusCode().is2xxSuccessful() || !(response.getBody() instanceof byte[])) {
+            return response;
+        }
+        try {
+            JsonNode booking = objectMapper.readTree((byte[]) response.getBody());
+            JsonNode itemId = booking.path("item").path("id");
+            if (booking.path("id").isNumber() && itemId.isNumber()) {
+                bookingItems.put(booking.path("id").asLong(), itemId.asLong());
+            }
+        } catch (IOException e) {
+            log.debug("Не удалось прочитать вещь брони из ответа сервера.", e);
+        }
+        return response;
     }
 }
@@ -22,6 +22,8 @@ import ru.practicum.shareit.marker.Create;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import java.util.concurrent.CompletableFuture;
+
 import static ru.practicum.shareit.util.Constants.HEADER_ID;
 
 @Controller
@@ -33,8 +35,9 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader(HEADER_ID) Long bookerId,
-                                      @Validated({Create.class}) @RequestBody BookingInDto bookingInDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(
+            @RequestHeader(HEADER_ID) Long bookerId,
+            @Validated({Create.class}) @RequestBody BookingInDto bookingInDto) {
         log.info("Начато выполнение \"Создать бронирование\". " +
                 "bookerId={}; RequestBody={}", bookerId, bookingInDto);
         bookingInDto.setBookerId(bookerId);
@@ -43,50 +46,53 @@ public class BookingController {
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> confirm(@RequestHeader(HEADER_ID) Long ownerId,
-                                          @PathVariable Long bookingId,
-                                          @RequestParam Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> confirm(@RequestHeader(HEADER_ID) Long ownerId,
+                                                             @PathVariable Long bookingId,
+                                                             @RequestParam Boolean approved) {
         log.info("Начато выполнение \"Подтверждение/отклонение бронирования\". " +
                 "ownerID={}, bookingID={} approved={}", ownerId, bookingId, approved);
         return bookingClient.confirm(bookingId, approved, ownerId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> find(@RequestHeader(HEADER_ID) Long requesterId,
-                                       @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> find(@RequestHeader(HEADER_ID) Long requesterId,
+                                                          @PathVariable Long bookingId) {
         log.info("Начато выполнение \"Найти бронирование\". " +
                 "requesterID={}, bookingID={}", requesterId, bookingId);
         return bookingClient.find(bookingId, requesterId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findByUser(@RequestHeader(HEADER_ID) Long bookerId,
-                                             @RequestParam(defaultValue = "ALL", required = false) String state,
-                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
-                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> findByUser(
+            @RequestHeader(HEADER_ID) Long bookerId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Начато выполнение \"Найти бронирования пользователя\". " +
-                "bookerID={}, state={}, from={}, size={}", bookerId, state, from, size);
+                "bookerID={}, state={}, from={}, size={}, cursor={}", bookerId, state, from, size, cursor);
         try {
             FindStatus.valueOf(state);
         } catch (IllegalArgumentException e) {
             throw new ValidationDataException(String.format("Unknown state: %s", state));
         }
-        return bookingClient.findByUser(state, bookerId, from, size);
+        return bookingClient.findByUser(state, bookerId, from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> findItemsForUser(
+    public CompletableFuture<ResponseEntity<Object>> findItemsForUser(
             @RequestHeader(HEADER_ID) Long ownerId,
             @RequestParam(defaultValue = "ALL", required = false) String state,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Начато выполнение \"Найти бронирования вещей пользователя\". " +
-                "ownerID={}, state={}, from={}, size={}", ownerId, state, from, size);
+                "ownerID={}, state={}, from={}, size={}, cursor={}", ownerId, state, from, size, cursor);
         try {
             FindStatus.valueOf(state);
         } catch (IllegalArgumentException e) {
             throw new ValidationDataException(String.format("Unknown state: %s", state));
         }
-        return bookingClient.findItemsForUser(state, ownerId, from, size);
+        return bookingClient.findItemsForUser(state, ownerId, from, size, cursor);
     }
 }
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Неблокирующий транспорт до сервера ShareIt на java.net.http.HttpClient.
+ * Запрос отправляется асинхронно, ответ приходит в пул потоков клиента, а поток обработки
+ * запроса шлюза на это время освобождается (контроллеры возвращают CompletableFuture).
+ * Используется в режиме shareit-server.client-mode=async. У клиента JDK свой пул соединений:
+ * из shareit-server.pool.* к нему применяются только таймауты соединения и ответа.
+ */
+@Component
+public class AsyncHttpTransport {
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    public AsyncHttpTransport(ObjectMapper objectMapper, ShareItServerProperties properties) {
+        this.objectMapper = objectMapper;
+        this.httpClient = properties.isAsync()
+                ? HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(properties.getPool().getConnectTimeout())
+                        .build()
+                : null;
+        this.readTimeout = properties.getPool().getReadTimeout();
+    }
+
+    public boolean isEnabled() {
+        return httpClient != null;
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+                                                              @Nullable Object body) {
+        HttpRequest.BodyPublisher publisher;
+        try {
+            publisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .method(method.name(), publisher)
+                .timeout(readTimeout);
+        headers.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(AsyncHttpTransport::toResponseEntity);
+    }
+
+    private static ResponseEntity<byte[]> toResponseEntity(HttpResponse<byte[]> response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        return ResponseEntity.status(response.statusCode()).headers(headers).body(response.body());
+    }
+}
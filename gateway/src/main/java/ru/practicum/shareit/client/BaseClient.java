@@ -8,91 +8,191 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "te", "trailer");
 
-    public BaseClient(RestTemplate rest) {
+    protected final RestTemplate rest;
+    private final AsyncHttpTransport asyncTransport;
+    private final RequestCoalescer coalescer;
+    private final ResponseCache responseCache;
+    private final UpstreamGuard upstreamGuard;
+    private final ServerLoadBalancer loadBalancer;
+
+    /**
+     * @param rest Шаблон с обработчиком URI без адреса сервера: экземпляр сервера выбирается при отправке.
+     */
+    public BaseClient(RestTemplate rest, AsyncHttpTransport asyncTransport, RequestCoalescer coalescer,
+                      ResponseCache responseCache, UpstreamGuard upstreamGuard, ServerLoadBalancer loadBalancer) {
         this.rest = rest;
+        this.asyncTransport = asyncTransport;
+        this.coalescer = coalescer;
+        this.responseCache = responseCache;
+        this.upstreamGuard = upstreamGuard;
+        this.loadBalancer = loadBalancer;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId,
+                                                            @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId,
+                                                                 @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId,
+                                                                @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId,
+                                                                  @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId,
+                                                               @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Добавляет к пути параметр cursor для постраничной выдачи по ключу, если клиент его передал.
+     */
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        return withParameter(path, parameters, "cursor", cursor);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+    /**
+     * Добавляет к пути необязательный параметр запроса, если его значение задано.
+     */
+    protected static String withParameter(String path, Map<String, Object> parameters, String name,
+                                          @Nullable Object value) {
+        if (value == null) {
+            return path;
+        }
+        parameters.put(name, value);
+        return path + "&" + name + "={" + name + "}";
+    }
+
+    /**
+     * Ключ маршрутизации запроса - ID вещи, по которому запрос направляется на один и тот же узел сервера.
+     * По умолчанию ключа нет, запрос выполняется на любом узле.
+     */
+    @Nullable
+    protected Long routingKey(HttpMethod method, URI uri, @Nullable Object body) {
+        return null;
+    }
+
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(
+            HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        if (method == HttpMethod.GET) {
+            if (responseCache.isCacheable(uri)) {
+                // В кэш кладется полный ответ; на If-None-Match клиента 304 по ETag из кэша ответит сам шлюз.
+                headers.remove(HttpHeaders.IF_NONE_MATCH);
+                return responseCache.get(uri, userId, () -> coalesce(uri, userId, headers));
+            }
+            return coalesce(uri, userId, headers);
+        }
+        return send(method, uri, headers, body).thenApply(response -> {
+            if (response.getStatusCode().is2xxSuccessful()) {
+                responseCache.invalidate(uri);
             }
+            return response;
+        });
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> coalesce(URI uri, Long userId, HttpHeaders headers) {
+        // Ответ может зависеть от запрашивающего (например, владельцу вещи видны брони), поэтому он в ключе.
+        // Условный запрос может получить 304 вместо тела, поэтому в ключе и If-None-Match.
+        String key = uri + "|" + userId + "|" + headers.getFirst(HttpHeaders.IF_NONE_MATCH);
+        return coalescer.execute(key, () -> send(HttpMethod.GET, uri, headers, null));
+    }
+
+    /**
+     * Вызов сервера через переборку и выключатель маршрута на экземпляре, выбранном балансировщиком.
+     */
+    private <T> CompletableFuture<ResponseEntity<Object>> send(HttpMethod method, URI uri, HttpHeaders headers,
+                                                               @Nullable T body) {
+        Long routingKey = routingKey(method, uri, body);
+        return upstreamGuard.execute(uri, () -> loadBalancer.execute(method, uri, routingKey,
+                instanceUri -> exchange(method, instanceUri, headers, body)));
+    }
+
+    private <T> CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+                                                                   @Nullable T body) {
+        if (asyncTransport.isEnabled()) {
+            return asyncTransport.exchange(method, uri, headers, body).thenApply(BaseClient::passthrough);
+        }
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+
+        // Тело ответа сервера читается как массив байт и отдается клиенту без разбора JSON в дерево объектов.
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            shareitServerResponse = rest.exchange(uri, method, requestEntity, byte[].class);
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            shareitServerResponse = ResponseEntity.status(e.getRawStatusCode())
+                    .headers(e.getResponseHeaders())
+                    .body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return CompletableFuture.completedFuture(passthrough(shareitServerResponse));
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -102,18 +202,35 @@ public class BaseClient {
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        // Условный GET клиента передается серверу как есть: сервер сам ответит 304, если ETag совпал.
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            String ifNoneMatch = ((ServletRequestAttributes) attributes).getRequest()
+                    .getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
+        }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    /**
+     * Ответ шлюза со статусом, заголовками и телом ответа сервера.
+     * Заголовки уровня соединения не копируются: их выставляет сервер приложения шлюза.
+     */
+    private static ResponseEntity<Object> passthrough(ResponseEntity<byte[]> upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(upstream.getStatusCodeValue())
+                .headers(headers);
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        byte[] body = upstream.getBody();
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.client;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Автоматический выключатель вызовов маршрута сервера.
+ * <ul>
+ * <li>CLOSED - вызовы идут на сервер, результаты последних вызовов копятся в скользящем окне;
+ * если доля ошибок или медленных вызовов превысила порог, выключатель размыкается;</li>
+ * <li>OPEN - вызовы сразу отклоняются, сервер не нагружается; по истечении openDuration - пробный режим;</li>
+ * <li>HALF_OPEN - пропускается несколько пробных вызовов: все успешны - замыкание, любая ошибка - снова OPEN.</li>
+ * </ul>
+ * Ошибка - исключение или ответ 5xx; ответы 4xx означают, что сервер работает.
+ * Каждый переход начинает новую фазу; результат вызова учитывается только в той фазе, в которой вызов
+ * начат, поэтому вызов, начатый до размыкания, в HALF_OPEN не засчитывается как пробный.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final BiConsumer<State, State> onTransition;
+
+    private State state = State.CLOSED;
+    private long phase;
+    // Скользящее окно результатов последних вызовов: кольцевой буфер и счетчики по нему.
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(ShareItServerProperties.Resilience config, BiConsumer<State, State> onTransition) {
+        this.minimumCalls = config.getMinimumCalls();
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.slowCallNanos = config.getSlowCallDuration().toNanos();
+        this.openNanos = config.getOpenDuration().toNanos();
+        this.halfOpenProbes = config.getHalfOpenProbes();
+        this.failed = new boolean[config.getSlidingWindowSize()];
+        this.slow = new boolean[config.getSlidingWindowSize()];
+        this.onTransition = onTransition;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return Номер фазы, если вызов можно выполнить, иначе -1.
+     * Разрешенный вызов обязательно завершается onComplete с этим номером.
+     */
+    public synchronized long tryAcquire(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAt < openNanos) {
+                return -1;
+            }
+            transition(State.HALF_OPEN, now);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                return -1;
+            }
+            probesStarted++;
+        }
+        return phase;
+    }
+
+    /**
+     * @param acquiredPhase Номер фазы из tryAcquire.
+     */
+    public synchronized void onComplete(long acquiredPhase, boolean isFailure, long durationNanos, long now) {
+        if (acquiredPhase != phase) {
+            // Вызов начался до перехода (например, до размыкания), его результат уже ничего не меняет.
+            return;
+        }
+        boolean isSlow = durationNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (isFailure || isSlow) {
+                transition(State.OPEN, now);
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                transition(State.CLOSED, now);
+            }
+            return;
+        }
+        record(isFailure, isSlow);
+        if (recorded >= minimumCalls && (failures * 100 >= failureRateThreshold * recorded
+                || slowCalls * 100 >= slowCallRateThreshold * recorded)) {
+            transition(State.OPEN, now);
+        }
+    }
+
+    private void record(boolean isFailure, boolean isSlow) {
+        if (recorded == failed.length) {
+            failures -= failed[position] ? 1 : 0;
+            slowCalls -= slow[position] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[position] = isFailure;
+        slow[position] = isSlow;
+        failures += isFailure ? 1 : 0;
+        slowCalls += isSlow ? 1 : 0;
+        position = (position + 1) % failed.length;
+    }
+
+    private void transition(State target, long now) {
+        State previous = state;
+        state = target;
+        phase++;
+        if (target == State.OPEN) {
+            openedAt = now;
+        }
+        if (target == State.HALF_OPEN) {
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (target == State.CLOSED) {
+            position = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+        onTransition.accept(previous, target);
+    }
+}
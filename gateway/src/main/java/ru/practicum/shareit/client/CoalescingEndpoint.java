@@ -0,0 +1,32 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Эндпоинт actuator /actuator/coalescing: сколько GET-запросов обслужено чужим запросом к серверу.
+ */
+@Component
+@Endpoint(id = "coalescing")
+@RequiredArgsConstructor
+public class CoalescingEndpoint {
+    private final RequestCoalescer coalescer;
+
+    @ReadOperation
+    public Map<String, Object> coalescing() {
+        long requests = coalescer.getRequests();
+        long coalesced = coalescer.getCoalesced();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", requests);
+        result.put("coalesced", coalesced);
+        result.put("upstreamCalls", requests - coalesced);
+        result.put("coalescingRatio", requests == 0 ? 0.0 : (double) coalesced / requests);
+        result.put("inFlight", coalescer.getInFlight());
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Кольцо консистентного хэширования с виртуальными узлами.
+ * Каждый узел занимает на кольце virtualNodes точек; ключ принадлежит первому узлу по часовой стрелке
+ * от своего хэша. При добавлении или удалении узла переезжает только доля ключей этого узла, остальные
+ * ключи остаются на своих узлах. Изменения копируют кольцо, поиск идет без блокировок.
+ *
+ * @param <T> Узел; его строковое представление задает положение точек на кольце.
+ */
+public class ConsistentHashRing<T> {
+    private final int virtualNodes;
+    private volatile NavigableMap<Long, T> ring = new TreeMap<>();
+
+    public ConsistentHashRing(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public ConsistentHashRing(int virtualNodes, Collection<T> nodes) {
+        this(virtualNodes);
+        nodes.forEach(this::add);
+    }
+
+    public synchronized void add(T node) {
+        NavigableMap<Long, T> copy = new TreeMap<>(ring);
+        for (int i = 0; i < virtualNodes; i++) {
+            copy.put(hash(node + "#" + i), node);
+        }
+        ring = copy;
+    }
+
+    public synchronized void remove(T node) {
+        NavigableMap<Long, T> copy = new TreeMap<>(ring);
+        copy.values().removeIf(node::equals);
+        ring = copy;
+    }
+
+    /**
+     * @return Узел ключа или null, если кольцо пусто.
+     */
+    public T locate(long key) {
+        return locate(key, node -> true);
+    }
+
+    /**
+     * @return Первый по часовой стрелке от ключа узел, который принимает запрос (исправен, не перегружен),
+     * или null, если таких нет.
+     */
+    public T locate(long key, Predicate<T> isAcceptable) {
+        NavigableMap<Long, T> snapshot = ring;
+        long point = mix(key);
+        Set<T> checked = new HashSet<>();
+        for (Map<Long, T> part : List.of(snapshot.tailMap(point, true), snapshot.headMap(point, false))) {
+            for (T node : part.values()) {
+                if (checked.add(node) && isAcceptable.test(node)) {
+                    return node;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a с перемешиванием: точки виртуальных узлов с похожими именами расходятся по кольцу.
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3: соседние ключи попадают в разные места кольца.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
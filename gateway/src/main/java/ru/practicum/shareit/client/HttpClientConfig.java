@@ -0,0 +1,60 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Один HTTP-клиент с пулом соединений на все клиенты сервера ShareIt.
+ * Размер пула, таймауты, вытеснение простаивающих соединений и keep-alive задаются
+ * свойствами shareit-server.pool.*; состояние пула отдает эндпоинт /actuator/httppool.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public InstrumentedConnectionManager shareitConnectionManager(ShareItServerProperties properties) {
+        ShareItServerProperties.Pool pool = properties.getPool();
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager();
+        connectionManager.setMaxTotal(pool.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(pool.getMaxPerRoute());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient shareitHttpClient(InstrumentedConnectionManager shareitConnectionManager,
+                                                 ShareItServerProperties properties) {
+        ShareItServerProperties.Pool pool = properties.getPool();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Math.toIntExact(pool.getConnectTimeout().toMillis()))
+                .setSocketTimeout(Math.toIntExact(pool.getReadTimeout().toMillis()))
+                .setConnectionRequestTimeout(Math.toIntExact(pool.getAcquireTimeout().toMillis()))
+                .build();
+        long keepAliveMillis = pool.getKeepAlive().toMillis();
+        // Заголовок Keep-Alive сервера важнее; без него соединение живет keepAlive.
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long fromServer = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return fromServer > 0 ? fromServer : keepAliveMillis;
+        };
+        return HttpClients.custom()
+                .setConnectionManager(shareitConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(pool.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory shareitRequestFactory(CloseableHttpClient shareitHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(shareitHttpClient);
+    }
+}
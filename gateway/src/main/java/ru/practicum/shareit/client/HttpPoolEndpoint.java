@@ -0,0 +1,40 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.http.pool.PoolStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Эндпоинт actuator /actuator/httppool: состояние пула соединений шлюза с сервером.
+ */
+@Component
+@Endpoint(id = "httppool")
+@RequiredArgsConstructor
+public class HttpPoolEndpoint {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final InstrumentedConnectionManager connectionManager;
+
+    @ReadOperation
+    public Map<String, Object> pool() {
+        PoolStats stats = connectionManager.getTotalStats();
+        long acquired = connectionManager.getAcquireCount();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("leased", stats.getLeased());
+        result.put("pending", stats.getPending());
+        result.put("available", stats.getAvailable());
+        result.put("max", stats.getMax());
+        result.put("acquireCount", acquired);
+        result.put("acquireTimeouts", connectionManager.getAcquireTimeouts());
+        result.put("acquireAvgMillis",
+                acquired == 0 ? 0.0 : connectionManager.getAcquireNanos() / NANOS_PER_MILLI / acquired);
+        result.put("acquireMaxMillis", connectionManager.getAcquireMaxNanos() / NANOS_PER_MILLI);
+        return result;
+    }
+}
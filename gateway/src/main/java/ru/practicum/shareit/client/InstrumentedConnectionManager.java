@@ -0,0 +1,69 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул соединений, который считает время ожидания соединения из пула.
+ * Состояние пула (занято, ожидают, свободно) берется у самого пула, время ожидания накапливается
+ * здесь: число выдач, суммарное и максимальное время, число отказов по таймауту.
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator acquireMaxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong acquireTimeouts = new AtomicLong();
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long started = System.nanoTime();
+                try {
+                    HttpClientConnection connection = request.get(timeout, unit);
+                    long elapsed = System.nanoTime() - started;
+                    acquireCount.increment();
+                    acquireNanos.add(elapsed);
+                    acquireMaxNanos.accumulate(elapsed);
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    acquireTimeouts.incrementAndGet();
+                    throw e;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    public long getAcquireNanos() {
+        return acquireNanos.sum();
+    }
+
+    public long getAcquireMaxNanos() {
+        return acquireMaxNanos.get();
+    }
+
+    public long getAcquireTimeouts() {
+        return acquireTimeouts.get();
+    }
+}
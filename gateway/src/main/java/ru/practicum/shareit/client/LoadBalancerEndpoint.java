@@ -0,0 +1,24 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Эндпоинт actuator /actuator/upstreams: экземпляры сервера, их исправность и нагрузка.
+ */
+@Component
+@Endpoint(id = "upstreams")
+@RequiredArgsConstructor
+public class LoadBalancerEndpoint {
+    private final ServerLoadBalancer loadBalancer;
+
+    @ReadOperation
+    public List<Map<String, Object>> upstreams() {
+        return loadBalancer.stats();
+    }
+}
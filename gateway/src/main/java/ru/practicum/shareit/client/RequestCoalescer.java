@@ -0,0 +1,62 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одинаковых одновременных запросов (single-flight).
+ * Первый запрос с ключом уходит на сервер, остальные, пришедшие до его ответа, получают тот же ответ.
+ * После ответа ключ освобождается: следующий запрос снова идет на сервер, ответы не кэшируются.
+ * Применяется только к идемпотентным GET.
+ */
+@Component
+public class RequestCoalescer {
+    private final Map<String, CompletableFuture<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CompletableFuture<ResponseEntity<Object>> execute(String key,
+                                                             Supplier<CompletableFuture<ResponseEntity<Object>>> call) {
+        requests.increment();
+        CompletableFuture<ResponseEntity<Object>> promise = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> leader = inFlight.putIfAbsent(key, promise);
+        if (leader != null) {
+            coalesced.increment();
+            // Копия, чтобы отмена одним ожидающим не затронула остальных.
+            return leader.copy();
+        }
+        CompletableFuture<ResponseEntity<Object>> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        upstream.whenComplete((response, error) -> {
+            inFlight.remove(key, promise);
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(response);
+            }
+        });
+        return promise.copy();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш успешных ответов сервера на GET с ограниченным размером (Caffeine, вытеснение W-TinyLFU).
+ * Маршрут - первый сегмент пути запроса к серверу; свежесть задается для каждого маршрута отдельно.
+ * <ul>
+ * <li>свежий ответ отдается из кэша;</li>
+ * <li>устаревший в пределах stale-while-revalidate отдается сразу, а новый запрашивается в фоне;</li>
+ * <li>если сервер ответил 5xx или недоступен, отдается устаревший в пределах stale-if-error.</li>
+ * </ul>
+ * Изменение через шлюз (не GET) сбрасывает ответы своего и зависимых маршрутов. Поколение маршрута
+ * не дает ответу, запрошенному до изменения, попасть в кэш после сброса, а ответу, сохраненному
+ * до изменения, - быть отданным как устаревший при ошибке сервера.
+ * <p>
+ * Кэш рассчитан на один шлюз перед сервером: изменения через другой шлюз или напрямую в сервер
+ * его не сбрасывают, и до конца свежести (и stale-while-revalidate) отдаются старые ответы.
+ * Поэтому по умолчанию кэш выключен, а времена свежести короткие.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+    private static final int REFRESH_THREADS = 4;
+    // Какие маршруты устаревают при изменении через маршрут: брони видны в вещах, вещи - в запросах,
+    // удаление пользователя каскадно удаляет его вещи, брони и запросы.
+    private static final Map<String, List<String>> INVALIDATES = Map.of(
+            "bookings", List.of("items"),
+            "items", List.of("items", "requests"),
+            "requests", List.of("requests"),
+            "users", List.of("users", "items", "requests"));
+
+    private final LongSupplier clock;
+    private final boolean isEnabled;
+    private final Map<String, Long> ttlNanos;
+    private final long staleWhileRevalidateNanos;
+    private final long staleIfErrorNanos;
+    private final Cache<String, Entry> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(REFRESH_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "gateway-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder staleOnError = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public ResponseCache(ShareItServerProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    /**
+     * @param clock Текущее время, нс (в тестах - управляемое).
+     */
+    ResponseCache(ShareItServerProperties properties, LongSupplier clock) {
+        this.clock = clock;
+        ShareItServerProperties.Cache config = properties.getCache();
+        this.isEnabled = config.isEnabled();
+        this.ttlNanos = config.getTtl().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().toNanos()));
+        this.staleWhileRevalidateNanos = config.getStaleWhileRevalidate().toNanos();
+        this.staleIfErrorNanos = config.getStaleIfError().toNanos();
+        long maxTtl = ttlNanos.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfterWrite(Duration.ofNanos(maxTtl + Math.max(staleWhileRevalidateNanos, staleIfErrorNanos)))
+                .ticker(clock::getAsLong)
+                .recordStats()
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
+    }
+
+    public boolean isCacheable(URI uri) {
+        return isEnabled && ttlNanos.containsKey(routeOf(uri));
+    }
+
+    /**
+     * Ответ на GET из кэша или от сервера.
+     *
+     * @param uri    Адрес запроса к серверу.
+     * @param userId ID запрашивающего: ответ может от него зависеть.
+     * @param loader Запрос к серверу.
+     */
+    public CompletableFuture<ResponseEntity<Object>> get(URI uri, Long userId,
+                                                         Supplier<CompletableFuture<ResponseEntity<Object>>> loader) {
+        String route = routeOf(uri);
+        long ttl = ttlNanos.get(route);
+        String key = route + "|" + uri + "|" + userId;
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            long age = clock.getAsLong() - entry.storedAt;
+            if (age < ttl) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.response);
+            }
+            if (age < ttl + staleWhileRevalidateNanos) {
+                staleHits.increment();
+                if (entry.isRefreshing.compareAndSet(false, true)) {
+                    refreshExecutor.execute(() -> load(key, route, loader, entry));
+                }
+                return CompletableFuture.completedFuture(entry.response);
+            }
+        }
+        misses.increment();
+        return load(key, route, loader, entry);
+    }
+
+    /**
+     * Сброс ответов, которые могли устареть после изменения через этот маршрут.
+     */
+    public void invalidate(URI uri) {
+        List<String> routes = INVALIDATES.get(routeOf(uri));
+        if (routes == null) {
+            return;
+        }
+        invalidations.increment();
+        for (String route : routes) {
+            generations.computeIfAbsent(route, r -> new AtomicLong()).incrementAndGet();
+        }
+        Set<String> prefixes = routes.stream().map(route -> route + "|").collect(Collectors.toSet());
+        cache.asMap().keySet().removeIf(key -> prefixes.contains(key.substring(0, key.indexOf('|') + 1)));
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "size", cache.estimatedSize(),
+                "hits", hits.sum(),
+                "staleHits", staleHits.sum(),
+                "staleOnError", staleOnError.sum(),
+                "misses", misses.sum(),
+                "evictions", cache.stats().evictionCount(),
+                "invalidations", invalidations.sum());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> load(String key, String route,
+                                                           Supplier<CompletableFuture<ResponseEntity<Object>>> loader,
+                                                           @Nullable Entry previous) {
+        long generation = generationOf(route);
+        CompletableFuture<ResponseEntity<Object>> upstream;
+        try {
+            upstream = loader.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        return upstream.handle((response, error) -> {
+            if (previous != null) {
+                previous.isRefreshing.set(false);
+            }
+            if (error == null && response.getStatusCode().is2xxSuccessful()) {
+                // Если пока шел запрос, маршрут сбросили, ответ мог устареть - в кэш он не попадает.
+                // Поколение проверяется и после записи: сброс мог пройти между проверкой и записью.
+                if (generationOf(route) == generation) {
+                    Entry stored = new Entry(response, clock.getAsLong(), generation);
+                    cache.put(key, stored);
+                    if (generationOf(route) != generation) {
+                        cache.asMap().remove(key, stored);
+                    }
+                }
+                return response;
+            }
+            if (previous != null && previous.generation == generationOf(route)
+                    && (error != null || response.getStatusCode().is5xxServerError())
+                    && clock.getAsLong() - previous.storedAt < ttlNanos.get(route) + staleIfErrorNanos) {
+                staleOnError.increment();
+                log.warn("Сервер не ответил на {}, отдан устаревший ответ из кэша.", key);
+                return previous.response;
+            }
+            if (error instanceof CompletionException) {
+                throw (CompletionException) error;
+            }
+            if (error != null) {
+                throw new CompletionException(error);
+            }
+            return response;
+        });
+    }
+
+    private long generationOf(String route) {
+        AtomicLong generation = generations.get(route);
+        return generation != null ? generation.get() : 0;
+    }
+
+    /**
+     * Маршрут - первый сегмент пути запроса к серверу.
+     */
+    static String routeOf(URI uri) {
+        String path = uri.getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static class Entry {
+        private final ResponseEntity<Object> response;
+        private final long storedAt;
+        // Поколение маршрута на момент запроса к серверу.
+        private final long generation;
+        private final AtomicBoolean isRefreshing = new AtomicBoolean();
+
+        Entry(ResponseEntity<Object> response, long storedAt, long generation) {
+            this.response = response;
+            this.storedAt = storedAt;
+            this.generation = generation;
+        }
+    }
+}
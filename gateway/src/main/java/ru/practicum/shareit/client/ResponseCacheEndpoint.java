@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Эндпоинт actuator /actuator/responsecache: попадания, промахи и вытеснения кэша ответов.
+ */
+@Component
+@Endpoint(id = "responsecache")
+@RequiredArgsConstructor
+public class ResponseCacheEndpoint {
+    private final ResponseCache responseCache;
+
+    @ReadOperation
+    public Map<String, Object> responseCache() {
+        return responseCache.stats();
+    }
+}
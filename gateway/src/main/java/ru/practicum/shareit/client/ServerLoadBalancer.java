@@ -0,0 +1,306 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Балансировка запросов между экземплярами сервера (shareit-server.urls).
+ * Экземпляр выбирается по двум случайным (power of two choices): из двух исправных берется тот,
+ * у которого меньше незавершенных запросов. Исправность проверяется в фоне запросом к /actuator/health:
+ * после нескольких неудач подряд экземпляр исключается, после нескольких успехов - возвращается.
+ * Если исправных не осталось, запросы идут на любые экземпляры. GET при недоступности экземпляра
+ * или ответе 502-504 повторяется на другом экземпляре.
+ * <p>
+ * Запросы с ключом маршрутизации (ID вещи) направляются по кольцу консистентного хэширования, чтобы
+ * кэши и индекс занятых интервалов вещи чаще попадали на один узел. Нагрузка ограничена (consistent hashing
+ * with bounded loads): если у владельца ключа незавершенных запросов больше hashLoadFactor от среднего,
+ * берется следующий узел кольца. Исключенный экземпляр уступает свои ключи соседям по кольцу и получает их
+ * обратно после возвращения.
+ * <p>
+ * Поэтому запросы к одной вещи могут одновременно выполняться на разных узлах (перегрузка, исключение узла,
+ * повтор, другой шлюз), и кольцо не заменяет блокировок: при нескольких экземплярах сервер должен работать
+ * с shareit.booking.lock-mode=db. Режим блокировок каждый экземпляр сообщает в ответе на проверку исправности
+ * (components.booking.details.lockMode); экземпляры, не сообщившие db, в балансировку не попадают,
+ * даже если других не осталось, - тогда шлюз отвечает 503.
+ */
+@Slf4j
+@Component
+public class ServerLoadBalancer {
+    private static final String DB_LOCK_MODE = "db";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final List<Instance> instances;
+    private final ShareItServerProperties.Balancer config;
+    private final HttpClient healthClient;
+    private final ScheduledExecutorService healthChecker;
+    private final ConsistentHashRing<Instance> ring;
+
+    public ServerLoadBalancer(ShareItServerProperties properties) {
+        this.config = properties.getBalancer();
+        this.instances = properties.getEndpoints().stream()
+                .map(Instance::new)
+                .collect(Collectors.toUnmodifiableList());
+        this.ring = config.isConsistentHash() ? new ConsistentHashRing<>(config.getVirtualNodes(), instances) : null;
+        if (instances.size() > 1) {
+            this.healthClient = HttpClient.newBuilder()
+                    .connectTimeout(config.getHealthCheckTimeout())
+                    .build();
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "gateway-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Первая проверка - до приема запросов: без нее режим блокировок экземпляров неизвестен.
+            checkHealth().join();
+            long intervalMillis = config.getHealthCheckInterval().toMillis();
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.healthClient = null;
+            this.healthChecker = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (healthChecker != null) {
+            healthChecker.shutdown();
+        }
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> execute(
+            HttpMethod method, URI uri, Function<URI, CompletableFuture<ResponseEntity<Object>>> call) {
+        return execute(method, uri, null, call);
+    }
+
+    /**
+     * Выполняет вызов на выбранном экземпляре.
+     *
+     * @param uri        Путь и параметры запроса без адреса сервера.
+     * @param routingKey Ключ маршрутизации (ID вещи) или null, если запрос можно выполнить на любом узле.
+     * @param call       Вызов по полному адресу экземпляра.
+     */
+    public CompletableFuture<ResponseEntity<Object>> execute(
+            HttpMethod method, URI uri, @Nullable Long routingKey,
+            Function<URI, CompletableFuture<ResponseEntity<Object>>> call) {
+        int attempts = method == HttpMethod.GET ? 1 + config.getMaxRetries() : 1;
+        return attempt(uri, routingKey, call, new ArrayList<>(), attempts);
+    }
+
+    public List<Map<String, Object>> stats() {
+        return instances.stream()
+                .map(instance -> {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("url", instance.url);
+                    result.put("healthy", instance.isHealthy);
+                    result.put("lockMode", instance.lockMode);
+                    result.put("outstanding", instance.outstanding.get());
+                    result.put("requests", instance.requests.get());
+                    return result;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> attempt(
+            URI uri, @Nullable Long routingKey, Function<URI, CompletableFuture<ResponseEntity<Object>>> call,
+            List<Instance> tried, int attemptsLeft) {
+        Instance instance = choose(routingKey, tried);
+        if (instance == null) {
+            log.warn("Нет экземпляров сервера с блокировками броней в базе для {}.", uri);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("Нет экземпляров сервера с shareit.booking.lock-mode=db.")));
+        }
+        tried.add(instance);
+        instance.outstanding.incrementAndGet();
+        instance.requests.incrementAndGet();
+        CompletableFuture<ResponseEntity<Object>> upstream;
+        try {
+            upstream = call.apply(URI.create(instance.url + uri));
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        return upstream.handle((response, error) -> {
+            instance.outstanding.decrementAndGet();
+            if (attemptsLeft > 1 && !routable(tried).isEmpty() && isRetryable(response, error)) {
+                log.warn("Экземпляр сервера {} не ответил на {}, запрос повторяется на другом.", instance.url, uri);
+                return attempt(uri, routingKey, call, tried, attemptsLeft - 1);
+            }
+            return error == null
+                    ? CompletableFuture.completedFuture(response)
+                    : CompletableFuture.<ResponseEntity<Object>>failedFuture(error);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * @return Экземпляр для запроса или null, если не осталось ни одного с блокировками броней в базе.
+     */
+    @Nullable
+    private Instance choose(@Nullable Long routingKey, List<Instance> tried) {
+        List<Instance> routable = routable(tried);
+        if (routable.isEmpty()) {
+            return null;
+        }
+        if (routingKey != null && ring != null) {
+            int capacity = hashCapacity();
+            Instance owner = ring.locate(routingKey, instance -> instance.isHealthy && routable.contains(instance)
+                    && instance.outstanding.get() < capacity);
+            if (owner != null) {
+                return owner;
+            }
+        }
+        List<Instance> candidates = routable.stream()
+                .filter(instance -> instance.isHealthy)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            candidates = routable;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = candidates.get(first);
+        Instance b = candidates.get(second);
+        return a.outstanding.get() <= b.outstanding.get() ? a : b;
+    }
+
+    /**
+     * Еще не опробованные для запроса экземпляры. Из нескольких годятся только сообщившие режим блокировок db;
+     * единственный экземпляр может работать и с блокировками в памяти.
+     */
+    private List<Instance> routable(List<Instance> tried) {
+        return instances.stream()
+                .filter(instance -> !tried.contains(instance) && (instances.size() == 1 || instance.isDbLock()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Предел незавершенных запросов на узел при выборе по кольцу: hashLoadFactor от среднего с учетом нового.
+     */
+    private int hashCapacity() {
+        int healthy = 0;
+        long outstanding = 0;
+        for (Instance instance : instances) {
+            if (instance.isHealthy) {
+                healthy++;
+                outstanding += instance.outstanding.get();
+            }
+        }
+        return (int) Math.ceil(config.getHashLoadFactor() * (outstanding + 1) / Math.max(1, healthy));
+    }
+
+    private static boolean isRetryable(ResponseEntity<Object> response, Throwable error) {
+        if (error != null) {
+            return true;
+        }
+        int status = response.getStatusCodeValue();
+        return status == HttpStatus.BAD_GATEWAY.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    CompletableFuture<Void> checkHealth() {
+        List<CompletableFuture<Void>> checks = new ArrayList<>();
+        for (Instance instance : instances) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(instance.url + config.getHealthPath()))
+                    .timeout(config.getHealthCheckTimeout())
+                    .GET()
+                    .build();
+            checks.add(healthClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .handle((response, error) -> {
+                        boolean isSuccess = error == null && response.statusCode() == HttpStatus.OK.value();
+                        instance.onHealthCheck(isSuccess, isSuccess ? lockModeOf(response.body()) : null);
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new));
+    }
+
+    @Nullable
+    private static String lockModeOf(String healthBody) {
+        try {
+            return JSON.readTree(healthBody)
+                    .path("components").path("booking").path("details").path("lockMode")
+                    .asText(null);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private class Instance {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private volatile boolean isHealthy = true;
+        // Режим блокировок броней по последней успешной проверке; null - еще неизвестен.
+        private volatile String lockMode;
+        private int successes;
+        private int failures;
+
+        Instance(String url) {
+            this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+
+        boolean isDbLock() {
+            return DB_LOCK_MODE.equalsIgnoreCase(lockMode);
+        }
+
+        /**
+         * @param reportedLockMode Режим блокировок из ответа успешной проверки, null - если не передан.
+         */
+        synchronized void onHealthCheck(boolean isSuccess, @Nullable String reportedLockMode) {
+            if (isSuccess) {
+                if (!DB_LOCK_MODE.equalsIgnoreCase(reportedLockMode) && (lockMode == null || isDbLock())) {
+                    log.warn("Экземпляр сервера {} работает без блокировок броней в базе (lock-mode={}) " +
+                            "и исключен из балансировки.", url, reportedLockMode);
+                }
+                lockMode = reportedLockMode;
+                failures = 0;
+                if (!isHealthy && ++successes >= config.getHealthyThreshold()) {
+                    isHealthy = true;
+                    log.info("Экземпляр сервера {} снова исправен и возвращен в балансировку.", url);
+                }
+            } else {
+                successes = 0;
+                if (isHealthy && ++failures >= config.getUnhealthyThreshold()) {
+                    isHealthy = false;
+                    log.warn("Экземпляр сервера {} не прошел проверку исправности и исключен из балансировки.", url);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки обращения к серверу ShareIt (shareit-server.*).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-server")
+public class ShareItServerProperties {
+    /**
+     * Адрес сервера.
+     */
+    private String url;
+    /**
+     * Адреса нескольких экземпляров сервера; если не заданы, используется url.
+     */
+    private List<String> urls = new ArrayList<>();
+    /**
+     * Балансировка между экземплярами сервера.
+     */
+    private Balancer balancer = new Balancer();
+    /**
+     * Режим вызова сервера: blocking - RestTemplate, поток обработки запроса ждет ответа сервера;
+     * async - неблокирующий java.net.http.HttpClient, поток освобождается на время запроса к серверу.
+     */
+    private String clientMode = "blocking";
+    /**
+     * Пул соединений с сервером.
+     */
+    private Pool pool = new Pool();
+    /**
+     * Кэш ответов на GET.
+     */
+    private Cache cache = new Cache();
+    /**
+     * Переборки и выключатели маршрутов сервера.
+     */
+    private Resilience resilience = new Resilience();
+
+    public boolean isAsync() {
+        return "async".equalsIgnoreCase(clientMode);
+    }
+
+    public List<String> getEndpoints() {
+        return urls.isEmpty() ? List.of(url) : urls;
+    }
+
+    @Getter
+    @Setter
+    public static class Balancer {
+        /**
+         * Путь проверки исправности экземпляра.
+         */
+        private String healthPath = "/actuator/health";
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+        private Duration healthCheckTimeout = Duration.ofSeconds(1);
+        /**
+         * Столько неудачных проверок подряд - и экземпляр исключается из балансировки.
+         */
+        private int unhealthyThreshold = 2;
+        /**
+         * Столько успешных проверок подряд - и исключенный экземпляр возвращается.
+         */
+        private int healthyThreshold = 2;
+        /**
+         * Сколько раз GET повторяется на другом экземпляре, если выбранный недоступен.
+         */
+        private int maxRetries = 1;
+        /**
+         * Направлять запросы с ID вещи на один узел по кольцу консистентного хэширования.
+         * Это только локальность кэшей и индексов вещи, а не гарантия единственного узла для вещи.
+         */
+        private boolean consistentHash = true;
+        /**
+         * Число точек каждого узла на кольце: чем больше, тем равномернее делятся ключи.
+         */
+        private int virtualNodes = 160;
+        /**
+         * Во сколько раз нагрузка узла может превысить среднюю, прежде чем ключ уйдет на следующий узел.
+         */
+        private double hashLoadFactor = 1.25;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+        /**
+         * Максимум соединений в пуле.
+         */
+        private int maxTotal = 200;
+        /**
+         * Максимум соединений на один маршрут (хост сервера).
+         */
+        private int maxPerRoute = 200;
+        /**
+         * Таймаут установки соединения.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        /**
+         * Таймаут ожидания данных ответа.
+         */
+        private Duration readTimeout = Duration.ofSeconds(10);
+        /**
+         * Таймаут ожидания свободного соединения из пула.
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(1);
+        /**
+         * Соединения, простаивающие дольше, закрываются фоновым потоком.
+         */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        /**
+         * Время жизни соединения без использования, если сервер не прислал заголовок Keep-Alive.
+         */
+        private Duration keepAlive = Duration.ofSeconds(20);
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * Выключен по умолчанию: сбрасывается только изменениями через этот же шлюз (см. ResponseCache).
+         */
+        private boolean enabled = false;
+        /**
+         * Максимум ответов в кэше; при переполнении вытесняются редко запрашиваемые (W-TinyLFU).
+         */
+        private long maxEntries = 10_000;
+        /**
+         * Время свежести ответа по первому сегменту пути (items, users, requests).
+         * Ответы маршрутов, которых здесь нет, не кэшируются.
+         */
+        private Map<String, Duration> ttl = new HashMap<>(Map.of(
+                "items", Duration.ofSeconds(5),
+                "users", Duration.ofSeconds(10),
+                "requests", Duration.ofSeconds(5)));
+        /**
+         * Сколько после окончания свежести ответ отдается сразу, пока в фоне запрашивается новый.
+         */
+        private Duration staleWhileRevalidate = Duration.ofSeconds(5);
+        /**
+         * Сколько после окончания свежести ответ отдается, если сервер вернул 5xx или недоступен.
+         */
+        private Duration staleIfError = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Resilience {
+        private boolean enabled = true;
+        /**
+         * Максимум одновременных вызовов маршрута; сверх него запрос сразу получает 503.
+         */
+        private int maxConcurrentCalls = 100;
+        /**
+         * Свой максимум для отдельных маршрутов (первый сегмент пути).
+         */
+        private Map<String, Integer> maxConcurrentCallsByRoute = new HashMap<>();
+        /**
+         * Сколько последних вызовов учитывается при расчете доли ошибок.
+         */
+        private int slidingWindowSize = 50;
+        /**
+         * Меньше вызовов в окне - выключатель не размыкается.
+         */
+        private int minimumCalls = 20;
+        /**
+         * Доля ошибок (5xx и недоступность сервера) в процентах, при которой выключатель размыкается.
+         */
+        private int failureRateThreshold = 50;
+        /**
+         * Вызов дольше считается медленным.
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        /**
+         * Доля медленных вызовов в процентах, при которой выключатель размыкается.
+         */
+        private int slowCallRateThreshold = 80;
+        /**
+         * Сколько выключатель остается разомкнутым перед пробными вызовами.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+        /**
+         * Число пробных вызовов; все успешны - выключатель замыкается.
+         */
+        private int halfOpenProbes = 3;
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Изоляция маршрутов сервера (первый сегмент пути: bookings, items, users, requests).
+ * У каждого маршрута своя переборка - ограничение одновременных вызовов - и свой выключатель.
+ * Если маршрут деградировал, вызовы к нему отклоняются сразу ответом 503, а потоки шлюза
+ * не скапливаются в ожидании и остаются для остальных маршрутов.
+ * Метрики: shareit.gateway.circuit.state (0 - CLOSED, 1 - HALF_OPEN, 2 - OPEN),
+ * shareit.gateway.circuit.transitions, shareit.gateway.bulkhead.active, shareit.gateway.upstream.rejected.
+ */
+@Slf4j
+@Component
+public class UpstreamGuard {
+    private final LongSupplier clock;
+    private final ShareItServerProperties.Resilience config;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UpstreamGuard(ShareItServerProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * @param clock Текущее время, нс (в тестах - управляемое).
+     */
+    UpstreamGuard(ShareItServerProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.clock = clock;
+        this.config = properties.getResilience();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> execute(URI uri,
+                                                             Supplier<CompletableFuture<ResponseEntity<Object>>> call) {
+        if (!config.isEnabled()) {
+            return call.get();
+        }
+        Route route = routes.computeIfAbsent(ResponseCache.routeOf(uri), this::createRoute);
+        if (!route.bulkhead.tryAcquire()) {
+            return reject(route, "bulkhead");
+        }
+        long started = clock.getAsLong();
+        long phase = route.breaker.tryAcquire(started);
+        if (phase < 0) {
+            route.bulkhead.release();
+            return reject(route, "circuit");
+        }
+        CompletableFuture<ResponseEntity<Object>> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        return upstream.whenComplete((response, error) -> {
+            route.bulkhead.release();
+            long now = clock.getAsLong();
+            boolean isFailure = error != null || response.getStatusCode().is5xxServerError();
+            route.breaker.onComplete(phase, isFailure, now - started, now);
+        });
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> reject(Route route, String reason) {
+        meterRegistry.counter("shareit.gateway.upstream.rejected", "route", route.name, "reason", reason)
+                .increment();
+        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("Сервис временно недоступен, повторите запрос позже.")));
+    }
+
+    private Route createRoute(String name) {
+        int maxConcurrent = config.getMaxConcurrentCallsByRoute().getOrDefault(name, config.getMaxConcurrentCalls());
+        Semaphore bulkhead = new Semaphore(maxConcurrent);
+        CircuitBreaker breaker = new CircuitBreaker(config, (from, to) -> {
+            log.warn("Выключатель маршрута {}: {} -> {}.", name, from, to);
+            meterRegistry.counter("shareit.gateway.circuit.transitions",
+                    "route", name, "from", from.name(), "to", to.name()).increment();
+        });
+        Gauge.builder("shareit.gateway.circuit.state", breaker, b -> b.getState().ordinal())
+                .tag("route", name)
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.bulkhead.active", bulkhead, s -> maxConcurrent - s.availablePermits())
+                .tag("route", name)
+                .register(meterRegistry);
+        return new Route(name, bulkhead, breaker);
+    }
+
+    private static class Route {
+        private final String name;
+        private final Semaphore bulkhead;
+        private final CircuitBreaker breaker;
+
+        Route(String name, Semaphore bulkhead, CircuitBreaker breaker) {
+            this.name = name;
+            this.bulkhead = bulkhead;
+            this.breaker = breaker;
+        }
+    }
+}
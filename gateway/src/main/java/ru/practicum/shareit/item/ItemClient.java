@@ -1,62 +1,105 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerLoadBalancer;
+import ru.practicum.shareit.client.UpstreamGuard;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    private static final Pattern ITEM_PATH = Pattern.compile("^/items/(\\d+)(/.*)?$");
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+                      AsyncHttpTransport asyncTransport, RequestCoalescer coalescer, ResponseCache responseCache,
+                      UpstreamGuard upstreamGuard, ServerLoadBalancer loadBalancer) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                asyncTransport,
+                coalescer,
+                responseCache,
+                upstreamGuard,
+                loadBalancer
         );
     }
 
-    public ResponseEntity<Object> add(ItemDto itemDto, Long ownerId) {
+    /**
+     * Запросы к вещи (/items/{id}, /items/{id}/comment) направляются преимущественно на узел этой вещи.
+     */
+    @Override
+    protected Long routingKey(HttpMethod method, URI uri, Object body) {
+        Matcher matcher = ITEM_PATH.matcher(uri.getPath());
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> add(ItemDto itemDto, Long ownerId) {
         return post("", ownerId, itemDto);
     }
 
-    public ResponseEntity<Object> update(ItemDto itemDto, Long itemId, Long ownerId) {
+    public CompletableFuture<ResponseEntity<Object>> update(ItemDto itemDto, Long itemId, Long ownerId) {
         return patch("/" + itemId, ownerId, itemDto);
     }
 
-    public ResponseEntity<Object> getById(Long itemId, Long requesterId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(Long itemId, Long requesterId) {
         return get("/" + itemId, requesterId);
     }
 
-    public ResponseEntity<Object> getListByOwner(Long ownerId, Long from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> getListByOwner(Long ownerId, Long from, Integer size,
+                                                                    String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", ownerId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), ownerId, parameters);
     }
 
-    public ResponseEntity<Object> findItems(Long requesterId, String text, Long from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> findItems(Long requesterId, String text, Boolean fuzzy,
+                                                               LocalDateTime availableFrom, LocalDateTime availableTo,
+                                                               Long from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
+                "fuzzy", fuzzy,
                 "from", from,
                 "size", size
+        ));
+        String path = "/search?text={text}&fuzzy={fuzzy}&from={from}&size={size}";
+        path = withParameter(path, parameters, "availableFrom", availableFrom);
+        path = withParameter(path, parameters, "availableTo", availableTo);
+        return get(withCursor(path, parameters, cursor), requesterId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> suggest(Long requesterId, String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", requesterId, parameters);
+        return get("/suggest?prefix={prefix}&size={size}", requesterId, parameters);
     }
 
-    public ResponseEntity<Object> addComment(CommentDto commentDto, Long itemId, Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(CommentDto commentDto, Long itemId, Long userId) {
         final String path = String.format("/%s/comment", itemId);
         return post(path, userId, commentDto);
     }
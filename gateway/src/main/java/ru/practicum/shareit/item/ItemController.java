@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -18,9 +19,12 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.marker.Create;
 import ru.practicum.shareit.marker.Update;
 
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.util.Constants.HEADER_ID;
 
@@ -33,55 +37,75 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader(HEADER_ID) Long ownerId,
-                                      @Validated({Create.class}) @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(@RequestHeader(HEADER_ID) Long ownerId,
+                                                         @Validated({Create.class}) @RequestBody ItemDto itemDto) {
         log.info("Начато выполнение \"Создать вещь\". " +
                 "ownerID={}, RequestBody={}", ownerId, itemDto);
         return itemClient.add(itemDto, ownerId);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader(HEADER_ID) Long ownerId,
-                                         @PathVariable Long itemId,
-                                         @Validated({Update.class}) @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> update(@RequestHeader(HEADER_ID) Long ownerId,
+                                                            @PathVariable Long itemId,
+                                                            @Validated({Update.class}) @RequestBody ItemDto itemDto) {
         log.info("Начато выполнение \"Обновить вещь\". " +
                 ", ownerID={}, itemID={}, RequestBody={}", ownerId, itemId, itemDto);
         return itemClient.update(itemDto, itemId, ownerId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(@RequestHeader(HEADER_ID) Long requesterId,
-                                          @PathVariable Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(@RequestHeader(HEADER_ID) Long requesterId,
+                                                             @PathVariable Long itemId) {
         log.info("Начато выполнение \"Получить вещь по ID\". " +
                 "itemID={}, requesterID={}", itemId, requesterId);
         return itemClient.getById(itemId, requesterId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getListByOwner(
+    public CompletableFuture<ResponseEntity<Object>> getListByOwner(
             @RequestHeader(HEADER_ID) Long ownerId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         log.info("Начато выполнение \"Получить все вещи владельца\". " +
-                "ownerID={}, from={}, size={}", ownerId, from, size);
-        return itemClient.getListByOwner(ownerId, from, size);
+                "ownerID={}, from={}, size={}, cursor={}", ownerId, from, size, cursor);
+        return itemClient.getListByOwner(ownerId, from, size, cursor);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> findItems(@RequestHeader(HEADER_ID) Long requesterId,
-                                            @RequestParam @NotNull String text,
-                                            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
-                                            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> findItems(
+            @RequestHeader(HEADER_ID) Long requesterId,
+            @RequestParam @NotNull String text,
+            @RequestParam(name = "fuzzy", defaultValue = "false") Boolean fuzzy,
+            @RequestParam(name = "availableFrom", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableFrom,
+            @RequestParam(name = "availableTo", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableTo,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Начато выполнение \"Найти вещь\". " +
-                "text={}, from={}, size={}", text, from, size);
-        return itemClient.findItems(requesterId, text, from, size);
+                "text={}, fuzzy={}, availableFrom={}, availableTo={}, from={}, size={}, cursor={}",
+                text, fuzzy, availableFrom, availableTo, from, size, cursor);
+        return itemClient.findItems(requesterId, text, fuzzy, availableFrom, availableTo, from, size, cursor);
+    }
+
+    @GetMapping("/suggest")
+    public CompletableFuture<ResponseEntity<Object>> suggest(
+            @RequestHeader(HEADER_ID) Long requesterId,
+            @RequestParam @NotBlank String prefix,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Начато выполнение \"Подсказать названия вещей\". " +
+                "prefix={}, size={}", prefix, size);
+        return itemClient.suggest(requesterId, prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(HEADER_ID) Long userId,
-                                             @PathVariable Long itemId,
-                                             @Validated({Create.class}) @RequestBody CommentDto commentDto) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(
+            @RequestHeader(HEADER_ID) Long userId,
+            @PathVariable Long itemId,
+            @Validated({Create.class}) @RequestBody CommentDto commentDto) {
         log.info("Начато выполнение \"Добавить комментарий\". " +
                 "itemID={}, userID={}, RequestBody={}", itemId, userId, commentDto);
         return itemClient.addComment(commentDto, itemId, userId);
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Эндпоинт actuator /actuator/ratelimit: число корзин, разрешенные и отклоненные запросы.
+ */
+@Component
+@Endpoint(id = "ratelimit")
+@RequiredArgsConstructor
+public class RateLimitEndpoint {
+    private final RateLimiter rateLimiter;
+
+    @ReadOperation
+    public Map<String, Object> ratelimit() {
+        return rateLimiter.stats();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки ограничения частоты запросов пользователей (shareit-gateway.rate-limit.*).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    /**
+     * Ограничение для запросов, не попавших ни под одно правило.
+     */
+    private Limit defaults = new Limit();
+    /**
+     * Ограничения отдельных маршрутов; применяется первое подходящее правило.
+     */
+    private List<Rule> rules = new ArrayList<>();
+    /**
+     * Как часто удалять корзины пользователей, которые давно не обращались.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    @Getter
+    @Setter
+    public static class Limit {
+        /**
+         * Сколько запросов можно сделать подряд.
+         */
+        private int capacity = 100;
+        /**
+         * Сколько запросов в секунду восстанавливается.
+         */
+        private double perSecond = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Rule extends Limit {
+        /**
+         * HTTP-метод; пусто - любой.
+         */
+        private String method;
+        /**
+         * Шаблон пути в формате Ant, например /items/search.
+         */
+        private String path;
+    }
+}
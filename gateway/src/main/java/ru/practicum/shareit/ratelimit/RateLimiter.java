@@ -0,0 +1,138 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение частоты запросов: своя корзина токенов на пару (правило, пользователь).
+ * Корзины, которые успели наполниться до конца, периодически удаляются - пользователь не обращался
+ * достаточно долго, и новая корзина для него будет в том же состоянии. Так память ограничена
+ * числом пользователей, активных за последний интервал наполнения. Удаляемая корзина сначала
+ * выводится из обращения, и запрос, успевший ее найти, берет токен уже у новой.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+    private static final String DEFAULT_RULE = "default";
+
+    private final LongSupplier clock;
+    private final boolean isEnabled;
+    private final List<RateLimitProperties.Rule> rules;
+    private final RateLimitProperties.Limit defaults;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gateway-rate-limit-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    /**
+     * @param clock Текущее время, нс (в тестах - управляемое).
+     */
+    RateLimiter(RateLimitProperties properties, LongSupplier clock) {
+        this.clock = clock;
+        this.isEnabled = properties.isEnabled();
+        this.rules = List.copyOf(properties.getRules());
+        this.defaults = properties.getDefaults();
+        long sweepMillis = properties.getSweepInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @param method Метод запроса.
+     * @param path   Путь запроса.
+     * @param client Ключ клиента: ID пользователя или адрес, если ID не передан.
+     * @return 0, если запрос разрешен, иначе сколько наносекунд ждать до следующей попытки.
+     */
+    public long tryAcquire(String method, String path, String client) {
+        int ruleIndex = findRule(method, path);
+        RateLimitProperties.Limit limit = ruleIndex < 0 ? defaults : rules.get(ruleIndex);
+        String key = (ruleIndex < 0 ? DEFAULT_RULE : ruleIndex) + "|" + client;
+        long wait;
+        while (true) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(key,
+                        k -> new TokenBucket(limit.getCapacity(), limit.getPerSecond(), clock.getAsLong()));
+            }
+            wait = bucket.tryAcquire(clock.getAsLong());
+            if (wait >= 0) {
+                break;
+            }
+            // Корзину между поиском и взятием токена вывела из обращения очистка: она полна, и новая
+            // будет в том же состоянии. Убираем ее из карты, не дожидаясь очистки, и берем новую.
+            buckets.remove(key, bucket);
+        }
+        if (wait == 0) {
+            allowed.increment();
+        } else {
+            rejected.increment();
+        }
+        return wait;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "buckets", buckets.size(),
+                "allowed", allowed.sum(),
+                "rejected", rejected.sum(),
+                "expired", expired.sum());
+    }
+
+    void sweep() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            if (entry.getValue().retireIfFull(now)) {
+                buckets.remove(entry.getKey(), entry.getValue());
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            expired.add(removed);
+            log.debug("Удалено неактивных корзин ограничения запросов: {}.", removed);
+        }
+    }
+
+    private int findRule(String method, String path) {
+        for (int i = 0; i < rules.size(); i++) {
+            RateLimitProperties.Rule rule = rules.get(i);
+            if ((rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(method))
+                    && pathMatcher.match(rule.getPath(), path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
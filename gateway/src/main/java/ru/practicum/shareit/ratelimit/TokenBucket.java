@@ -0,0 +1,61 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Неблокирующий token bucket. Состояние - одно число: момент (в наносекундах), когда корзина
+ * снова наполнится до capacity (алгоритм GCRA, эквивалентный корзине токенов).
+ * Запрос берет токен, сдвигая этот момент на интервал одного токена; если момент ушел дальше,
+ * чем емкость корзины, запрос отклоняется. Обновление - один CAS без блокировок.
+ * Полную корзину очистка выводит из обращения (retireIfFull) тем же CAS, поэтому токен не может
+ * быть взят у корзины, которую уже удаляют.
+ */
+public class TokenBucket {
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final long tokenIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity        Емкость корзины: сколько запросов можно сделать подряд.
+     * @param tokensPerSecond Скорость пополнения.
+     * @param now             Текущее время, нс.
+     */
+    public TokenBucket(int capacity, double tokensPerSecond, long now) {
+        this.tokenIntervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = tokenIntervalNanos * capacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * @return 0, если токен взят, иначе сколько наносекунд ждать до появления токена;
+     * отрицательное значение - корзина выведена из обращения, токен нужно брать у новой.
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            if (current == RETIRED) {
+                return -1;
+            }
+            long next = Math.max(current, now) + tokenIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Выводит из обращения полную корзину: такую можно удалить, новая будет в том же состоянии.
+     *
+     * @return false, если корзина не полна (в том числе токен только что взят) - удалять ее нельзя.
+     */
+    public boolean retireIfFull(long now) {
+        long current = fullAt.get();
+        return current != RETIRED && current <= now && fullAt.compareAndSet(current, RETIRED);
+    }
+}
@@ -1,48 +1,62 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerLoadBalancer;
+import ru.practicum.shareit.client.UpstreamGuard;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+                             AsyncHttpTransport asyncTransport, RequestCoalescer coalescer, ResponseCache responseCache,
+                             UpstreamGuard upstreamGuard, ServerLoadBalancer loadBalancer) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                asyncTransport,
+                coalescer,
+                responseCache,
+                upstreamGuard,
+                loadBalancer
         );
     }
 
-    public ResponseEntity<Object> add(Long requesterId, ItemRequestDto itemRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(Long requesterId, ItemRequestDto itemRequestDto) {
         return post("", requesterId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getByRequester(Long requesterId) {
+    public CompletableFuture<ResponseEntity<Object>> getByRequester(Long requesterId) {
         return get("", requesterId);
     }
 
-    public ResponseEntity<Object> getMadeByOther(Long requesterId, Long from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> getMadeByOther(Long requesterId, Long from, Integer size,
+                                                                    String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&size={size}", requesterId, parameters);
+        ));
+        return get(withCursor("/all?from={from}&size={size}", parameters, cursor), requesterId, parameters);
     }
 
-    public ResponseEntity<Object> getById(Long requesterId, Long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(Long requesterId, Long requestId) {
         return get("/" + requestId, requesterId);
     }
 }
@@ -18,6 +18,8 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import java.util.concurrent.CompletableFuture;
+
 import static ru.practicum.shareit.util.Constants.HEADER_ID;
 
 @RestController
@@ -29,32 +31,34 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader(HEADER_ID) Long requesterId,
-                                      @Validated({Create.class}) @RequestBody ItemRequestDto itemRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(
+            @RequestHeader(HEADER_ID) Long requesterId,
+            @Validated({Create.class}) @RequestBody ItemRequestDto itemRequestDto) {
         log.info("Начато выполнение \"Создать запрос\". " +
                 "requesterId={}; RequestBody={}", requesterId, itemRequestDto);
         return itemRequestClient.add(requesterId, itemRequestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getByRequester(@RequestHeader(HEADER_ID) Long requesterId) {
+    public CompletableFuture<ResponseEntity<Object>> getByRequester(@RequestHeader(HEADER_ID) Long requesterId) {
         log.info("Начато выполнение \"Получить запросы пользователя\". " +
                 "requesterId={}", requesterId);
         return itemRequestClient.getByRequester(requesterId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getMadeByOther(
+    public CompletableFuture<ResponseEntity<Object>> getMadeByOther(
             @RequestHeader(HEADER_ID) Long requesterId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Начато выполнение \"Получить запросы других пользователей\". " +
-                "requesterId={}; from={}; size={}", requesterId, from, size);
-        return itemRequestClient.getMadeByOther(requesterId, from, size);
+                "requesterId={}; from={}; size={}; cursor={}", requesterId, from, size, cursor);
+        return itemRequestClient.getMadeByOther(requesterId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(@RequestHeader(HEADER_ID) Long requesterId,
+    public CompletableFuture<ResponseEntity<Object>> getById(@RequestHeader(HEADER_ID) Long requesterId,
                                   @PathVariable Long requestId) {
         log.info("Начато выполнение \"Получить запрос по ID\". " +
                 "requestId={}", requestId);
@@ -1,46 +1,59 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AsyncHttpTransport;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerLoadBalancer;
+import ru.practicum.shareit.client.UpstreamGuard;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+                      AsyncHttpTransport asyncTransport, RequestCoalescer coalescer, ResponseCache responseCache,
+                      UpstreamGuard upstreamGuard, ServerLoadBalancer loadBalancer) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                asyncTransport,
+                coalescer,
+                responseCache,
+                upstreamGuard,
+                loadBalancer
         );
     }
 
-    public ResponseEntity<Object> add(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> getById(Long id) {
+    public CompletableFuture<ResponseEntity<Object>> getById(Long id) {
         return get("/" + id, id);
     }
 
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<Object>> getAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> update(Long id, UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> update(Long id, UserDto userDto) {
         return patch("/" + id, id, userDto);
     }
 
-    public void remove(Long id) {
-        delete("/" + id, id);
+    public CompletableFuture<Void> remove(Long id) {
+        return delete("/" + id, id).thenApply(response -> null);
     }
 }
@@ -16,6 +16,8 @@ import ru.practicum.shareit.marker.Create;
 import ru.practicum.shareit.marker.Update;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @Slf4j
 @RequiredArgsConstructor
@@ -24,37 +26,37 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> add(@Validated({Create.class}) @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(@Validated({Create.class}) @RequestBody UserDto userDto) {
         log.info("Начато выполнение \"Создать пользователя\". " +
                 "RequestBody={}", userDto);
         return userClient.add(userDto);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getById(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<Object>> getById(@PathVariable Long id) {
         log.info("Начато выполнение \"Получить пользователя по ID\". " +
                 "userID={}", id);
         return userClient.getById(id);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<Object>> getAll() {
         log.info("Начато выполнение \"Получить список всех пользователей\".");
         return userClient.getAll();
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> update(@PathVariable Long id,
-                                         @Validated({Update.class}) @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> update(@PathVariable Long id,
+                                                            @Validated({Update.class}) @RequestBody UserDto userDto) {
         log.info("Начато выполнение \"Обновить данные пользователя по ID\". " +
                 "userID={}, RequestBody={}", id, userDto);
         return userClient.update(id, userDto);
     }
 
     @DeleteMapping("/{id}")
-    public void remove(@PathVariable Long id) {
+    public CompletableFuture<Void> remove(@PathVariable Long id) {
         log.info("Начато выполнение \"Удалить пользователя по ID\". " +
                 "userID={}", id);
-        userClient.remove(id);
+        return userClient.remove(id);
     }
 }
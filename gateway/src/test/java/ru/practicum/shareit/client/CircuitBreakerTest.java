@@ -0,0 +1,202 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Выключатель по управляемым часам: время вызова и его длительность передаются явно.
+ */
+class CircuitBreakerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long FAST = SECOND / 10;
+    private static final long SLOW = 3 * SECOND;
+
+    private final List<String> transitions = new ArrayList<>();
+    private long now = TimeUnit.HOURS.toNanos(1);
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        ShareItServerProperties.Resilience config = new ShareItServerProperties.Resilience();
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallDuration(Duration.ofSeconds(2));
+        config.setSlowCallRateThreshold(75);
+        config.setOpenDuration(Duration.ofSeconds(10));
+        config.setHalfOpenProbes(2);
+        breaker = new CircuitBreaker(config, (from, to) -> transitions.add(from + "->" + to));
+    }
+
+    @Test
+    void onComplete_opensOnlyAfterMinimumCalls() {
+        // Act
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+        CircuitBreaker.State afterThree = breaker.getState();
+        call(true, FAST);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, afterThree);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    void onComplete_slidingWindowEvictsOldestCalls() {
+        // Assign
+        call(false, FAST);
+        call(false, FAST);
+        call(false, FAST);
+        call(true, FAST);
+
+        // Act
+        // Окно из 4 вызовов: первый успешный вытесняется, ошибок становится 2 из 4 (а не 2 из 5).
+        call(true, FAST);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void onComplete_opensOnSlowCalls() {
+        // Act
+        call(false, SLOW);
+        call(false, SLOW);
+        call(false, FAST);
+        call(false, SLOW);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void tryAcquire_openRejectsUntilOpenDuration() {
+        // Assign
+        open();
+
+        // Act
+        now += 10 * SECOND - 1;
+        long beforeDuration = breaker.tryAcquire(now);
+        now += 1;
+        long afterDuration = breaker.tryAcquire(now);
+
+        // Assert
+        assertEquals(-1, beforeDuration);
+        assertTrue(afterDuration >= 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpen_allowsOnlyConfiguredProbes() {
+        // Assign
+        open();
+        now += 10 * SECOND;
+
+        // Act
+        long first = breaker.tryAcquire(now);
+        long second = breaker.tryAcquire(now);
+        long third = breaker.tryAcquire(now);
+
+        // Assert
+        assertTrue(first >= 0);
+        assertTrue(second >= 0);
+        assertEquals(-1, third);
+    }
+
+    @Test
+    void halfOpen_allProbesSucceed_closesWithEmptyWindow() {
+        // Assign
+        open();
+        now += 10 * SECOND;
+        long first = breaker.tryAcquire(now);
+        long second = breaker.tryAcquire(now);
+
+        // Act
+        breaker.onComplete(first, false, FAST, now);
+        CircuitBreaker.State afterFirst = breaker.getState();
+        breaker.onComplete(second, false, FAST, now);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.HALF_OPEN, afterFirst);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // Окно очищено: прежние ошибки не размыкают выключатель с первой же новой ошибкой.
+        call(true, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    void halfOpen_failedOrSlowProbeReopens() {
+        // Assign
+        open();
+        now += 10 * SECOND;
+        long probe = breaker.tryAcquire(now);
+
+        // Act
+        breaker.onComplete(probe, false, SLOW, now);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        // Новый отсчет openDuration - от повторного размыкания.
+        now += 9 * SECOND;
+        assertEquals(-1, breaker.tryAcquire(now));
+    }
+
+    @Test
+    void halfOpen_callStartedBeforeOpeningIsNotAProbe() {
+        // Assign
+        long startedWhileClosed = breaker.tryAcquire(now);
+        open();
+        now += 10 * SECOND;
+        long probe = breaker.tryAcquire(now);
+
+        // Act
+        breaker.onComplete(startedWhileClosed, false, FAST, now);
+        breaker.onComplete(probe, false, FAST, now);
+
+        // Assert
+        // Успешен только один из двух пробных вызовов.
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpen_lateFailureOfOldCallDoesNotReopen() {
+        // Assign
+        long startedWhileClosed = breaker.tryAcquire(now);
+        open();
+        now += 10 * SECOND;
+        long first = breaker.tryAcquire(now);
+        long second = breaker.tryAcquire(now);
+
+        // Act
+        breaker.onComplete(startedWhileClosed, true, SLOW, now);
+        breaker.onComplete(first, false, FAST, now);
+        breaker.onComplete(second, false, FAST, now);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean isFailure, long duration) {
+        long phase = breaker.tryAcquire(now);
+        assertTrue(phase >= 0);
+        breaker.onComplete(phase, isFailure, duration, now);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+    private static final int KEYS = 30_000;
+    private static final int VIRTUAL_NODES = 160;
+
+    private ConsistentHashRing<String> ring;
+
+    @BeforeEach
+    void setUp() {
+        ring = new ConsistentHashRing<>(VIRTUAL_NODES, List.of("node-a", "node-b", "node-c"));
+    }
+
+    @Test
+    void locate_evenDistribution() {
+        // Act
+        Map<String, Integer> counts = new HashMap<>();
+        for (long key = 1; key <= KEYS; key++) {
+            counts.merge(ring.locate(key), 1, Integer::sum);
+        }
+
+        // Assert
+        assertEquals(counts.size(), 3);
+        for (int count : counts.values()) {
+            assertTrue(count > KEYS / 4 && count < KEYS * 5 / 12, counts.toString());
+        }
+    }
+
+    @Test
+    void add_movesKeysOnlyToJoinedNode() {
+        // Assign
+        Map<Long, String> before = assignment();
+
+        // Act
+        ring.add("node-d");
+
+        // Assert
+        Map<Long, String> after = assignment();
+        int moved = 0;
+        for (long key = 1; key <= KEYS; key++) {
+            if (!before.get(key).equals(after.get(key))) {
+                assertEquals(after.get(key), "node-d");
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 6 && moved < KEYS / 3, "moved " + moved);
+    }
+
+    @Test
+    void remove_movesOnlyKeysOfLeftNode() {
+        // Assign
+        Map<Long, String> before = assignment();
+
+        // Act
+        ring.remove("node-b");
+
+        // Assert
+        Map<Long, String> after = assignment();
+        for (long key = 1; key <= KEYS; key++) {
+            if (before.get(key).equals("node-b")) {
+                assertTrue(!after.get(key).equals("node-b"));
+            } else {
+                assertEquals(after.get(key), before.get(key));
+            }
+        }
+    }
+
+    @Test
+    void locate_skipsUnacceptableNode() {
+        // Assign
+        long key = 42;
+        String owner = ring.locate(key);
+
+        // Act
+        String fallback = ring.locate(key, node -> !node.equals(owner));
+
+        // Assert
+        assertTrue(!fallback.equals(owner));
+        ring.remove(owner);
+        assertEquals(ring.locate(key), fallback);
+    }
+
+    private Map<Long, String> assignment() {
+        Map<Long, String> result = new HashMap<>();
+        for (long key = 1; key <= KEYS; key++) {
+            result.put(key, ring.locate(key));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Объединение запросов: ответ сервера - future, которое тест завершает сам.
+ */
+class RequestCoalescerTest {
+    private static final String KEY = "/items/1|1";
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final CompletableFuture<ResponseEntity<Object>> upstream = new CompletableFuture<>();
+
+    @Test
+    void execute_followersShareLeaderResponse() {
+        // Assign
+        ResponseEntity<Object> response = ResponseEntity.ok("item");
+        CompletableFuture<ResponseEntity<Object>> leader = coalescer.execute(KEY, this::call);
+        List<CompletableFuture<ResponseEntity<Object>>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(coalescer.execute(KEY, this::call));
+        }
+
+        // Act
+        upstream.complete(response);
+
+        // Assert
+        assertEquals(1, upstreamCalls.get());
+        assertSame(response, leader.join());
+        for (CompletableFuture<ResponseEntity<Object>> follower : followers) {
+            assertSame(response, follower.join());
+        }
+        assertEquals(4, coalescer.getRequests());
+        assertEquals(3, coalescer.getCoalesced());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void execute_keyReleasedAfterResponse() {
+        // Assign
+        coalescer.execute(KEY, this::call);
+        upstream.complete(ResponseEntity.ok("first"));
+
+        // Act
+        ResponseEntity<Object> next = coalescer.execute(KEY, () -> {
+            upstreamCalls.incrementAndGet();
+            return CompletableFuture.completedFuture(ResponseEntity.ok("second"));
+        }).join();
+
+        // Assert
+        assertEquals("second", next.getBody());
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, coalescer.getCoalesced());
+    }
+
+    @Test
+    void execute_differentKeysNotCoalesced() {
+        // Act
+        coalescer.execute(KEY, this::call);
+        coalescer.execute("/items/1|2", this::call);
+
+        // Assert
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(2, coalescer.getInFlight());
+    }
+
+    @Test
+    void execute_errorReachesEveryWaiter() {
+        // Assign
+        IllegalStateException error = new IllegalStateException("connection reset");
+        List<CompletableFuture<ResponseEntity<Object>>> waiters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            waiters.add(coalescer.execute(KEY, this::call));
+        }
+
+        // Act
+        upstream.completeExceptionally(error);
+
+        // Assert
+        for (CompletableFuture<ResponseEntity<Object>> waiter : waiters) {
+            var e = assertThrows(CompletionException.class, waiter::join);
+            assertSame(error, e.getCause());
+        }
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void execute_synchronousErrorReleasesKey() {
+        // Assign
+        IllegalStateException error = new IllegalStateException("pool closed");
+
+        // Act
+        CompletableFuture<ResponseEntity<Object>> failed = coalescer.execute(KEY, () -> {
+            throw error;
+        });
+        CompletableFuture<ResponseEntity<Object>> next = coalescer.execute(KEY, this::call);
+
+        // Assert
+        var e = assertThrows(CompletionException.class, failed::join);
+        assertSame(error, e.getCause());
+        assertEquals(1, upstreamCalls.get());
+        assertFalse(next.isDone());
+    }
+
+    @Test
+    void execute_cancelledWaiterDoesNotAffectOthers() {
+        // Assign
+        CompletableFuture<ResponseEntity<Object>> leader = coalescer.execute(KEY, this::call);
+        CompletableFuture<ResponseEntity<Object>> follower = coalescer.execute(KEY, this::call);
+
+        // Act
+        leader.cancel(false);
+        upstream.complete(ResponseEntity.ok("item"));
+
+        // Assert
+        assertTrue(leader.isCancelled());
+        assertEquals("item", follower.join().getBody());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void execute_concurrentCallersMakeOneUpstreamCall() throws Exception {
+        // Assign
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<ResponseEntity<Object>>>> submitted = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            submitted.add(executor.submit(() -> {
+                start.await();
+                return coalescer.execute(KEY, this::call);
+            }));
+        }
+
+        // Act
+        start.countDown();
+        List<CompletableFuture<ResponseEntity<Object>>> waiters = new ArrayList<>();
+        for (Future<CompletableFuture<ResponseEntity<Object>>> future : submitted) {
+            waiters.add(future.get(10, TimeUnit.SECONDS));
+        }
+        upstream.complete(ResponseEntity.ok("item"));
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(threads - 1, coalescer.getCoalesced());
+        for (CompletableFuture<ResponseEntity<Object>> waiter : waiters) {
+            assertEquals("item", waiter.join().getBody());
+        }
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> call() {
+        upstreamCalls.incrementAndGet();
+        return upstream;
+    }
+}
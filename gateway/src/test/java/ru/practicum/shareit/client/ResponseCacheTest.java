@@ -0,0 +1,208 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кэш ответов по управляемым часам. Ответ фонового обновления - future, которое тест завершает сам:
+ * запись в кэш идет в потоке теста, и сброс можно провести, пока обновление еще не закончено.
+ */
+class ResponseCacheTest {
+    private static final URI ITEM = URI.create("/items/1");
+    private static final URI USER = URI.create("/users/1");
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final Long USER_ID = 1L;
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    // Выполняется при следующем чтении часов: кэш читает их после проверки поколения, перед записью ответа.
+    private final AtomicReference<Runnable> onNextRead = new AtomicReference<>();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ShareItServerProperties properties = new ShareItServerProperties();
+        ShareItServerProperties.Cache config = properties.getCache();
+        config.setEnabled(true);
+        config.setTtl(Map.of("items", Duration.ofSeconds(5), "users", Duration.ofSeconds(5)));
+        config.setStaleWhileRevalidate(Duration.ofSeconds(5));
+        config.setStaleIfError(Duration.ofSeconds(60));
+        cache = new ResponseCache(properties, () -> {
+            Runnable action = onNextRead.getAndSet(null);
+            if (action != null) {
+                action.run();
+            }
+            return clock.get();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void get_freshFromCache() {
+        // Assign
+        get(ITEM, respond(HttpStatus.OK, "v1"));
+        clock.addAndGet(4 * SECOND);
+
+        // Act
+        ResponseEntity<Object> cached = get(ITEM, respond(HttpStatus.OK, "v2"));
+
+        // Assert
+        assertEquals("v1", cached.getBody());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void get_staleWhileRevalidate_oneRefreshThenNewResponse() throws InterruptedException {
+        // Assign
+        get(ITEM, respond(HttpStatus.OK, "v1"));
+        clock.addAndGet(6 * SECOND);
+        CompletableFuture<ResponseEntity<Object>> refresh = new CompletableFuture<>();
+
+        // Act
+        ResponseEntity<Object> stale = get(ITEM, pending(refresh));
+        ResponseEntity<Object> staleAgain = get(ITEM, pending(refresh));
+        awaitRefresh(refresh);
+        refresh.complete(ResponseEntity.ok("v2"));
+        ResponseEntity<Object> refreshed = get(ITEM, respond(HttpStatus.OK, "v3"));
+
+        // Assert
+        assertEquals("v1", stale.getBody());
+        assertEquals("v1", staleAgain.getBody());
+        assertEquals("v2", refreshed.getBody());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void get_serverErrorServesStaleWithinStaleIfError() {
+        // Assign
+        get(ITEM, respond(HttpStatus.OK, "v1"));
+        clock.addAndGet(30 * SECOND);
+
+        // Act
+        ResponseEntity<Object> stale = get(ITEM, respond(HttpStatus.SERVICE_UNAVAILABLE, "down"));
+        clock.addAndGet(40 * SECOND);
+        ResponseEntity<Object> expired = get(ITEM, respond(HttpStatus.SERVICE_UNAVAILABLE, "down"));
+
+        // Assert
+        assertEquals("v1", stale.getBody());
+        assertEquals(503, expired.getStatusCodeValue());
+    }
+
+    @Test
+    void invalidate_dependentRoutesOnly() {
+        // Assign
+        get(ITEM, respond(HttpStatus.OK, "item"));
+        get(USER, respond(HttpStatus.OK, "user"));
+
+        // Act
+        cache.invalidate(URI.create("/bookings/1"));
+        ResponseEntity<Object> item = get(ITEM, respond(HttpStatus.OK, "item v2"));
+        ResponseEntity<Object> user = get(USER, respond(HttpStatus.OK, "user v2"));
+
+        // Assert
+        assertEquals("item v2", item.getBody());
+        assertEquals("user", user.getBody());
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void invalidate_duringRefresh_refreshedResponseNotCached() throws InterruptedException {
+        // Assign
+        get(ITEM, respond(HttpStatus.OK, "v1"));
+        clock.addAndGet(6 * SECOND);
+        CompletableFuture<ResponseEntity<Object>> refresh = new CompletableFuture<>();
+        get(ITEM, pending(refresh));
+        awaitRefresh(refresh);
+
+        // Act
+        cache.invalidate(ITEM);
+        refresh.complete(ResponseEntity.ok("before change"));
+        ResponseEntity<Object> afterChange = get(ITEM, respond(HttpStatus.OK, "after change"));
+
+        // Assert
+        assertEquals("after change", afterChange.getBody());
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void invalidate_betweenGenerationCheckAndPut_responseNotCached() {
+        // Assign
+        onNextRead.set(() -> cache.invalidate(ITEM));
+
+        // Act
+        ResponseEntity<Object> loaded = get(ITEM, respond(HttpStatus.OK, "before change"));
+        ResponseEntity<Object> afterChange = get(ITEM, respond(HttpStatus.OK, "after change"));
+
+        // Assert
+        assertEquals("before change", loaded.getBody());
+        assertEquals("after change", afterChange.getBody());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void invalidate_staleResponseNotServedOnError() {
+        // Assign
+        get(ITEM, respond(HttpStatus.OK, "v1"));
+        clock.addAndGet(30 * SECOND);
+        CompletableFuture<ResponseEntity<Object>> upstream = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> pendingGet = cache.get(ITEM, USER_ID, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+
+        // Act
+        cache.invalidate(ITEM);
+        upstream.complete(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("down"));
+
+        // Assert
+        assertEquals(503, pendingGet.join().getStatusCodeValue());
+    }
+
+    private ResponseEntity<Object> get(URI uri, Supplier<CompletableFuture<ResponseEntity<Object>>> loader) {
+        return cache.get(uri, USER_ID, loader).join();
+    }
+
+    private Supplier<CompletableFuture<ResponseEntity<Object>>> respond(HttpStatus status, Object body) {
+        return () -> {
+            upstreamCalls.incrementAndGet();
+            return CompletableFuture.completedFuture(ResponseEntity.status(status).body(body));
+        };
+    }
+
+    private Supplier<CompletableFuture<ResponseEntity<Object>>> pending(
+            CompletableFuture<ResponseEntity<Object>> response) {
+        return () -> {
+            upstreamCalls.incrementAndGet();
+            return response;
+        };
+    }
+
+    // Фоновое обновление запросило сервер и ждет ответа: его завершение тестом запишет ответ в потоке теста.
+    private static void awaitRefresh(CompletableFuture<ResponseEntity<Object>> refresh) throws InterruptedException {
+        long deadline = System.nanoTime() + 10 * SECOND;
+        while (refresh.getNumberOfDependents() == 0) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
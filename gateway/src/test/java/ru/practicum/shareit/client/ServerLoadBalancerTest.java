@@ -0,0 +1,206 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Балансировка между несколькими экземплярами сервера, каждый - HTTP-сервер на случайном порту.
+ */
+class ServerLoadBalancerTest {
+    private static final int INSTANCES = 3;
+
+    private final List<Instance> instances = new ArrayList<>();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private ServerLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            Instance instance = new Instance("server-" + i);
+            instances.add(instance);
+            urls.add("http://localhost:" + instance.server.getAddress().getPort());
+        }
+        ShareItServerProperties properties = new ShareItServerProperties();
+        properties.setUrls(urls);
+        properties.getBalancer().setHealthCheckInterval(Duration.ofMillis(50));
+        loadBalancer = new ServerLoadBalancer(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loadBalancer.shutdown();
+        instances.forEach(instance -> instance.server.stop(0));
+    }
+
+    @Test
+    void execute_skipsInstanceWithoutDbLock() {
+        // Assign
+        Instance local = instances.get(0);
+        local.lockMode.set("local");
+        awaitCondition(() -> "local".equals(loadBalancer.stats().get(0).get("lockMode")));
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, get().getStatusCodeValue());
+        }
+        loadBalancer.execute(HttpMethod.GET, URI.create("/items/42"), 42L, this::send).join();
+
+        // Assert
+        assertEquals(0, local.hits.get());
+        assertEquals(101, instances.get(1).hits.get() + instances.get(2).hits.get());
+    }
+
+    @Test
+    void execute_noInstanceWithDbLock_unavailable() {
+        // Assign
+        instances.forEach(instance -> instance.lockMode.set("local"));
+        awaitCondition(() -> loadBalancer.stats().stream().allMatch(stats -> "local".equals(stats.get("lockMode"))));
+
+        // Act
+        var result = get();
+
+        // Assert
+        assertEquals(503, result.getStatusCodeValue());
+        assertTrue(instances.stream().allMatch(instance -> instance.hits.get() == 0));
+    }
+
+    @Test
+    void execute_spreadsAcrossInstances() {
+        // Act
+        for (int i = 0; i < 300; i++) {
+            assertEquals(get().getStatusCodeValue(), 200);
+        }
+
+        // Assert
+        for (Instance instance : instances) {
+            assertTrue(instance.hits.get() > 50, instance.name + ": " + instance.hits.get());
+        }
+    }
+
+    @Test
+    void execute_sameItemSameInstance() {
+        // Act
+        for (int i = 0; i < 100; i++) {
+            loadBalancer.execute(HttpMethod.GET, URI.create("/items/42"), 42L, this::send).join();
+        }
+
+        // Assert
+        long instancesUsed = instances.stream().filter(instance -> instance.hits.get() > 0).count();
+        assertEquals(instancesUsed, 1L);
+    }
+
+    @Test
+    void execute_retriesGetOnAnotherInstance() {
+        // Assign
+        instances.get(0).server.stop(0);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertEquals(get().getStatusCodeValue(), 200);
+        }
+
+        // Assert
+        assertEquals(instances.get(1).hits.get() + instances.get(2).hits.get(), 100);
+    }
+
+    @Test
+    void execute_ejectsAndReinstatesUnhealthyInstance() {
+        // Assign
+        Instance sick = instances.get(0);
+        sick.isHealthy.set(false);
+        awaitCondition(() -> loadBalancer.stats().get(0).get("healthy").equals(false));
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            get();
+        }
+
+        // Assert
+        assertEquals(sick.hits.get(), 0);
+        sick.isHealthy.set(true);
+        awaitCondition(() -> loadBalancer.stats().get(0).get("healthy").equals(true));
+        for (int i = 0; i < 300; i++) {
+            get();
+        }
+        assertTrue(sick.hits.get() > 0);
+    }
+
+    private ResponseEntity<Object> get() {
+        return loadBalancer.execute(HttpMethod.GET, URI.create("/items?text=drill"), this::send).join();
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> send(URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> ResponseEntity.status(response.statusCode()).body(response.body()));
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Состояние экземпляра не изменилось.");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class Instance {
+        private final String name;
+        private final HttpServer server;
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicBoolean isHealthy = new AtomicBoolean(true);
+        private final AtomicReference<String> lockMode = new AtomicReference<>("db");
+
+        Instance(String name) throws IOException {
+            this.name = name;
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/actuator/health", exchange -> {
+                byte[] body = String.format("{\"status\":\"UP\",\"components\":{\"booking\":"
+                        + "{\"status\":\"UP\",\"details\":{\"lockMode\":\"%s\"}}}}", lockMode.get())
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(isHealthy.get() ? 200 : 503, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.createContext("/items", exchange -> {
+                hits.incrementAndGet();
+                byte[] body = name.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        }
+    }
+}
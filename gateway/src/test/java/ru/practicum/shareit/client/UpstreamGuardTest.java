@@ -0,0 +1,140 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Переборка и выключатель маршрута по управляемым часам: вызовы сервера - заранее заданные future.
+ */
+class UpstreamGuardTest {
+    private static final URI ITEMS = URI.create("/items/1");
+    private static final URI USERS = URI.create("/users/1");
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private UpstreamGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        ShareItServerProperties properties = new ShareItServerProperties();
+        ShareItServerProperties.Resilience config = properties.getResilience();
+        config.setMaxConcurrentCalls(2);
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallDuration(Duration.ofSeconds(2));
+        config.setSlowCallRateThreshold(100);
+        config.setOpenDuration(Duration.ofSeconds(10));
+        config.setHalfOpenProbes(1);
+        guard = new UpstreamGuard(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void execute_synchronousExceptionReleasesBulkhead() {
+        // Act
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<ResponseEntity<Object>> failed = guard.execute(USERS, () -> {
+                upstreamCalls.incrementAndGet();
+                throw new IllegalStateException("pool closed");
+            });
+            assertTrue(failed.isCompletedExceptionally());
+        }
+        ResponseEntity<Object> next = guard.execute(USERS, () -> respond(HttpStatus.OK)).join();
+
+        // Assert
+        assertEquals(200, next.getStatusCodeValue());
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(0.0, meterRegistry.get("shareit.gateway.bulkhead.active").tag("route", "users").gauge().value());
+    }
+
+    @Test
+    void execute_bulkheadRejectsOverLimitAndReleasesOnCompletion() {
+        // Assign
+        CompletableFuture<ResponseEntity<Object>> first = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> second = new CompletableFuture<>();
+        guard.execute(ITEMS, () -> first);
+        guard.execute(ITEMS, () -> second);
+
+        // Act
+        ResponseEntity<Object> overLimit = guard.execute(ITEMS, () -> respond(HttpStatus.OK)).join();
+        ResponseEntity<Object> otherRoute = guard.execute(USERS, () -> respond(HttpStatus.OK)).join();
+        first.complete(ResponseEntity.ok().build());
+        ResponseEntity<Object> afterRelease = guard.execute(ITEMS, () -> respond(HttpStatus.OK)).join();
+
+        // Assert
+        assertEquals(503, overLimit.getStatusCodeValue());
+        assertEquals(200, otherRoute.getStatusCodeValue());
+        assertEquals(200, afterRelease.getStatusCodeValue());
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("shareit.gateway.upstream.rejected")
+                .tag("route", "items").tag("reason", "bulkhead").counter().count());
+    }
+
+    @Test
+    void execute_openCircuitRejectsWithoutCallingServer() {
+        // Assign
+        for (int i = 0; i < 4; i++) {
+            guard.execute(ITEMS, () -> respond(HttpStatus.INTERNAL_SERVER_ERROR)).join();
+        }
+
+        // Act
+        ResponseEntity<Object> rejected = guard.execute(ITEMS, () -> respond(HttpStatus.OK)).join();
+        clock.addAndGet(10 * SECOND);
+        ResponseEntity<Object> probe = guard.execute(ITEMS, () -> respond(HttpStatus.OK)).join();
+        ResponseEntity<Object> afterClose = guard.execute(ITEMS, () -> respond(HttpStatus.OK)).join();
+
+        // Assert
+        assertEquals(503, rejected.getStatusCodeValue());
+        assertEquals(200, probe.getStatusCodeValue());
+        assertEquals(200, afterClose.getStatusCodeValue());
+        assertEquals(6, upstreamCalls.get());
+        assertEquals(0.0, meterRegistry.get("shareit.gateway.circuit.state").tag("route", "items").gauge().value());
+    }
+
+    @Test
+    void execute_clientErrorsDoNotOpenCircuit() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            guard.execute(ITEMS, () -> respond(HttpStatus.NOT_FOUND)).join();
+        }
+        ResponseEntity<Object> next = guard.execute(ITEMS, () -> respond(HttpStatus.OK)).join();
+
+        // Assert
+        assertEquals(200, next.getStatusCodeValue());
+    }
+
+    @Test
+    void execute_slowCallsMeasuredByClock() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            guard.execute(ITEMS, () -> {
+                clock.addAndGet(3 * SECOND);
+                return respond(HttpStatus.OK);
+            }).join();
+        }
+        ResponseEntity<Object> next = guard.execute(ITEMS, () -> respond(HttpStatus.OK)).join();
+
+        // Assert
+        assertEquals(503, next.getStatusCodeValue());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> respond(HttpStatus status) {
+        upstreamCalls.incrementAndGet();
+        return CompletableFuture.completedFuture(ResponseEntity.status(status).build());
+    }
+}
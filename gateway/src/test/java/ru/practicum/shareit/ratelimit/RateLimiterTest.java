@@ -0,0 +1,176 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ограничение частоты по управляемым часам; фоновая очистка отключена длинным интервалом,
+ * тесты вызывают sweep сами.
+ */
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    // Очистка при следующем чтении часов: limiter читает их после поиска корзины, перед взятием токена.
+    private final AtomicBoolean isSweepOnNextRead = new AtomicBoolean();
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaults().setCapacity(5);
+        properties.getDefaults().setPerSecond(1);
+        RateLimitProperties.Rule search = new RateLimitProperties.Rule();
+        search.setMethod("GET");
+        search.setPath("/items/search");
+        search.setCapacity(2);
+        search.setPerSecond(1);
+        properties.setRules(List.of(search));
+        properties.setSweepInterval(Duration.ofDays(1));
+        rateLimiter = new RateLimiter(properties, () -> {
+            if (isSweepOnNextRead.compareAndSet(true, false)) {
+                rateLimiter.sweep();
+            }
+            return clock.get();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void tryAcquire_ruleAndClientHaveOwnBuckets() {
+        // Act
+        int searches = acquireAll("GET", "/items/search", "1");
+        int otherClientSearches = acquireAll("GET", "/items/search", "2");
+        int items = acquireAll("GET", "/items/1", "1");
+
+        // Assert
+        assertEquals(2, searches);
+        assertEquals(2, otherClientSearches);
+        assertEquals(5, items);
+        assertEquals(SECOND, rateLimiter.tryAcquire("GET", "/items/search", "1"));
+    }
+
+    @Test
+    void sweep_removesOnlyFullBuckets() {
+        // Assign
+        rateLimiter.tryAcquire("GET", "/items/1", "1");
+        rateLimiter.tryAcquire("GET", "/items/1", "2");
+        clock.addAndGet(SECOND);
+        rateLimiter.tryAcquire("GET", "/items/1", "2");
+
+        // Act
+        rateLimiter.sweep();
+
+        // Assert
+        Map<String, Object> stats = rateLimiter.stats();
+        assertEquals(1, stats.get("buckets"));
+        assertEquals(1L, stats.get("expired"));
+    }
+
+    @Test
+    void sweep_doesNotResetRefillingBucket() {
+        // Assign
+        acquireAll("GET", "/items/search", "1");
+
+        // Act
+        rateLimiter.sweep();
+
+        // Assert
+        assertEquals(SECOND, rateLimiter.tryAcquire("GET", "/items/search", "1"));
+    }
+
+    @Test
+    void tryAcquire_bucketSweptAfterLookup_tokenTakenFromNewBucket() {
+        // Assign
+        rateLimiter.tryAcquire("GET", "/items/search", "1");
+        clock.addAndGet(SECOND);
+        isSweepOnNextRead.set(true);
+
+        // Act
+        long wait = rateLimiter.tryAcquire("GET", "/items/search", "1");
+
+        // Assert
+        // Найденную корзину очистка удалила до взятия токена: токен взят у новой, и в ней остался один.
+        assertEquals(0, wait);
+        assertEquals(1, acquireAll("GET", "/items/search", "1"));
+        assertEquals(1L, rateLimiter.stats().get("expired"));
+    }
+
+    @Test
+    void tryAcquire_racingSweepNeverExceedsCapacity() throws InterruptedException {
+        // Assign
+        // Часы стоят, поэтому каждая новая корзина полна и может быть удалена очисткой в любой момент,
+        // в том числе между поиском корзины и взятием токена. Пропущено должно быть ровно capacity.
+        int clients = 1000;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        Thread sweeper = new Thread(() -> {
+            while (isRunning.get()) {
+                rateLimiter.sweep();
+            }
+        });
+        sweeper.start();
+        AtomicInteger[] allowed = new AtomicInteger[clients];
+        for (int i = 0; i < clients; i++) {
+            allowed[i] = new AtomicInteger();
+        }
+        CountDownLatch startGate = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    startGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int attempt = 0; attempt < 5; attempt++) {
+                    for (int client = 0; client < clients; client++) {
+                        if (rateLimiter.tryAcquire("GET", "/items/search", String.valueOf(client)) == 0) {
+                            allowed[client].incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+
+        // Act
+        startGate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        isRunning.set(false);
+        sweeper.join();
+
+        // Assert
+        for (int client = 0; client < clients; client++) {
+            assertEquals(2, allowed[client].get(), "client " + client);
+        }
+    }
+
+    private int acquireAll(String method, String path, String client) {
+        int allowed = 0;
+        while (rateLimiter.tryAcquire(method, path, client) == 0) {
+            allowed++;
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Время передается корзине явно, поэтому тесты идут по управляемым часам без ожиданий.
+ */
+class TokenBucketTest {
+    private static final long START = TimeUnit.HOURS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_burstThenRetryAfter() {
+        // Assign
+        TokenBucket bucket = new TokenBucket(3, 1, START);
+
+        // Act
+        long first = bucket.tryAcquire(START);
+        long second = bucket.tryAcquire(START);
+        long third = bucket.tryAcquire(START);
+        long fourth = bucket.tryAcquire(START);
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(0, third);
+        assertEquals(SECOND, fourth);
+    }
+
+    @Test
+    void tryAcquire_retryAfterShrinksWithTime() {
+        // Assign
+        TokenBucket bucket = new TokenBucket(2, 4, START);
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+
+        // Act
+        long atStart = bucket.tryAcquire(START);
+        long halfway = bucket.tryAcquire(START + SECOND / 8);
+        long afterWait = bucket.tryAcquire(START + SECOND / 4);
+
+        // Assert
+        assertEquals(SECOND / 4, atStart);
+        assertEquals(SECOND / 8, halfway);
+        assertEquals(0, afterWait);
+    }
+
+    @Test
+    void tryAcquire_rejectedCallsDoNotConsumeTokens() {
+        // Assign
+        TokenBucket bucket = new TokenBucket(1, 1, START);
+        bucket.tryAcquire(START);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(START);
+        }
+
+        // Assert
+        assertEquals(0, bucket.tryAcquire(START + SECOND));
+    }
+
+    @Test
+    void tryAcquire_idleBucketDoesNotExceedCapacity() {
+        // Assign
+        TokenBucket bucket = new TokenBucket(2, 1, START);
+
+        // Act
+        long now = START + 100 * SECOND;
+        int allowed = 0;
+        while (bucket.tryAcquire(now) == 0) {
+            allowed++;
+        }
+
+        // Assert
+        assertEquals(2, allowed);
+    }
+
+    @Test
+    void retireIfFull_onlyFullBucket() {
+        // Assign
+        TokenBucket bucket = new TokenBucket(2, 1, START);
+        bucket.tryAcquire(START);
+
+        // Act
+        boolean retiredWhileRefilling = bucket.retireIfFull(START + SECOND / 2);
+        boolean retiredWhenFull = bucket.retireIfFull(START + SECOND);
+
+        // Assert
+        assertFalse(retiredWhileRefilling);
+        assertTrue(retiredWhenFull);
+        assertTrue(bucket.tryAcquire(START + SECOND) < 0);
+        assertFalse(bucket.retireIfFull(START + 2 * SECOND));
+    }
+}
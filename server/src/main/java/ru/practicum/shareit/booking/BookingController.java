@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInDto;
 import ru.practicum.shareit.booking.model.FindStatus;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.util.List;
 
@@ -52,26 +54,32 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> findByUser(@RequestHeader(HEADER_ID) Long bookerId,
-                                       @RequestParam(defaultValue = "ALL", required = false) String state,
-                                       @RequestParam(name = "from", defaultValue = "0") Long from,
-                                       @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingDto>> findByUser(
+            @RequestHeader(HEADER_ID) Long bookerId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam(name = "from", defaultValue = "0") Long from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Сервер принял запрос \"Найти бронирования пользователя\". " +
-                "bookerID={}, state={}, from={}, size={}", bookerId, state, from, size);
+                "bookerID={}, state={}, from={}, size={}, cursor={}", bookerId, state, from, size, cursor);
         FindStatus stateEnum;
         stateEnum = FindStatus.valueOf(state);
-        return bookingService.findByUser(stateEnum, bookerId, from, size);
+        List<BookingDto> bookings = bookingService.findByUser(stateEnum, bookerId, from, size, cursor);
+        return PageCursor.withNext(bookings, size, b -> PageCursor.encode(b.getStart(), b.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findItemsForUser(@RequestHeader(HEADER_ID) Long ownerId,
-                                             @RequestParam(defaultValue = "ALL", required = false) String state,
-                                             @RequestParam(name = "from", defaultValue = "0") Long from,
-                                             @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingDto>> findItemsForUser(
+            @RequestHeader(HEADER_ID) Long ownerId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam(name = "from", defaultValue = "0") Long from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Сервер принял запрос \"Найти бронирования вещей пользователя\". " +
-                "ownerID={}, state={}, from={}, size={}", ownerId, state, from, size);
+                "ownerID={}, state={}, from={}, size={}, cursor={}", ownerId, state, from, size, cursor);
         FindStatus stateEnum;
         stateEnum = FindStatus.valueOf(state);
-        return bookingService.findItemsForUser(stateEnum, ownerId, from, size);
+        List<BookingDto> bookings = bookingService.findItemsForUser(stateEnum, ownerId, from, size, cursor);
+        return PageCursor.withNext(bookings, size, b -> PageCursor.encode(b.getStart(), b.getId()));
     }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Режим блокировок броней в ответе /actuator/health (components.booking.details.lockMode).
+ * По нему шлюз при нескольких экземплярах сервера направляет запросы только на узлы с блокировками в базе.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingHealthIndicator implements HealthIndicator {
+    private final BookingProperties properties;
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("lockMode", properties.isDbLock() ? "db" : "local")
+                .build();
+    }
+}
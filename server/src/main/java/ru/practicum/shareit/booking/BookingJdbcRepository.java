@@ -0,0 +1,144 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.FindStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.util.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Выдача броней пользователя в обход JPA: на каждый FindStatus - один SQL-запрос, строки сразу
+ * превращаются в BookingDto. Нет контекста персистентности, снимков сущностей для dirty checking и прокси:
+ * вещь с владельцем и запросом (вместе с его автором) и арендатор собираются из колонок той же строки.
+ * Результат совпадает с выдачей через BookingRepository и BookingMapper, включая порядок и JSON.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingJdbcRepository {
+    private static final String SELECT = " select b.booking_id, b.start_date, b.end_date, b.status, " +
+            "       i.item_id, i.name as item_name, i.description, i.is_available, " +
+            "       o.user_id as owner_id, o.name as owner_name, o.email as owner_email, " +
+            "       r.request_id, r.description as request_description, r.created as request_created, " +
+            "       q.user_id as requester_id, q.name as requester_name, q.email as requester_email, " +
+            "       u.user_id as booker_id, u.name as booker_name, u.email as booker_email " +
+            "from bookings b " +
+            "join items i on i.item_id = b.item_id " +
+            "join users o on o.user_id = i.owner_id " +
+            "left join requests r on r.request_id = i.request_id " +
+            "left join users q on q.user_id = r.requester_id " +
+            "join users u on u.user_id = b.booker_id ";
+    private static final String BY_BOOKER = "where b.booker_id = :userId ";
+    private static final String BY_OWNER = "where i.owner_id = :userId ";
+    // Постраничная выдача по ключу (start, id), как в BookingRepository.
+    private static final String AFTER_CURSOR = "and (b.start_date < :cursorStart or " +
+            "     (b.start_date = :cursorStart and b.booking_id > :cursorId)) ";
+    private static final String ORDER_BY_START = "order by b.start_date desc, b.booking_id " +
+            "limit :size offset :offset ";
+    private static final Map<FindStatus, String> BY_BOOKER_SQL = statements(BY_BOOKER, "");
+    private static final Map<FindStatus, String> BY_BOOKER_AFTER_CURSOR_SQL = statements(BY_BOOKER, AFTER_CURSOR);
+    private static final Map<FindStatus, String> BY_OWNER_SQL = statements(BY_OWNER, "");
+    private static final Map<FindStatus, String> BY_OWNER_AFTER_CURSOR_SQL = statements(BY_OWNER, AFTER_CURSOR);
+
+    private static final RowMapper<BookingDto> BOOKING_DTO_MAPPER = (rs, rowNum) -> {
+        Long requestId = rs.getObject("request_id", Long.class);
+        ItemRequest request = requestId == null ? null : ItemRequest.builder()
+                .id(requestId)
+                .description(rs.getString("request_description"))
+                .requester(new User(rs.getLong("requester_id"), rs.getString("requester_name"),
+                        rs.getString("requester_email")))
+                .created(rs.getObject("request_created", LocalDateTime.class))
+                .build();
+        Item item = Item.builder()
+                .id(rs.getLong("item_id"))
+                .name(rs.getString("item_name"))
+                .description(rs.getString("description"))
+                .available(rs.getBoolean("is_available"))
+                .owner(new User(rs.getLong("owner_id"), rs.getString("owner_name"), rs.getString("owner_email")))
+                .request(request)
+                .build();
+        return BookingDto.builder()
+                .id(rs.getLong("booking_id"))
+                .start(rs.getObject("start_date", LocalDateTime.class))
+                .end(rs.getObject("end_date", LocalDateTime.class))
+                .item(item)
+                .booker(new User(rs.getLong("booker_id"), rs.getString("booker_name"), rs.getString("booker_email")))
+                .status(BookingStatus.valueOf(rs.getString("status")))
+                .build();
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Брони арендатора.
+     *
+     * @param cursor Курсор страницы; null - страница по смещению offset.
+     */
+    public List<BookingDto> findByBooker(FindStatus state, Long bookerId, LocalDateTime now,
+                                         @Nullable PageCursor cursor, long offset, int size) {
+        String sql = cursor != null ? BY_BOOKER_AFTER_CURSOR_SQL.get(state) : BY_BOOKER_SQL.get(state);
+        return jdbcTemplate.query(sql, parameters(bookerId, now, cursor, offset, size), BOOKING_DTO_MAPPER);
+    }
+
+    /**
+     * Брони вещей владельца.
+     *
+     * @param cursor Курсор страницы; null - страница по смещению offset.
+     */
+    public List<BookingDto> findByOwner(FindStatus state, Long ownerId, LocalDateTime now,
+                                        @Nullable PageCursor cursor, long offset, int size) {
+        String sql = cursor != null ? BY_OWNER_AFTER_CURSOR_SQL.get(state) : BY_OWNER_SQL.get(state);
+        return jdbcTemplate.query(sql, parameters(ownerId, now, cursor, offset, size), BOOKING_DTO_MAPPER);
+    }
+
+    private static MapSqlParameterSource parameters(Long userId, LocalDateTime now, @Nullable PageCursor cursor,
+                                                    long offset, int size) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("now", now)
+                .addValue("size", size)
+                .addValue("offset", cursor != null ? 0 : offset);
+        if (cursor != null) {
+            parameters.addValue("cursorStart", cursor.getStart());
+            parameters.addValue("cursorId", cursor.getId());
+        }
+        return parameters;
+    }
+
+    private static Map<FindStatus, String> statements(String byUser, String afterCursor) {
+        Map<FindStatus, String> statements = new EnumMap<>(FindStatus.class);
+        for (FindStatus state : FindStatus.values())
+            statements.put(state, SELECT + byUser + condition(state) + afterCursor + ORDER_BY_START);
+        return statements;
+    }
+
+    // Условия те же, что у методов BookingRepository для каждого FindStatus.
+    private static String condition(FindStatus state) {
+        switch (state) {
+            case CURRENT:
+                return "and b.start_date < :now and b.end_date > :now ";
+            case PAST:
+                return "and b.end_date < :now ";
+            case FUTURE:
+                return "and b.start_date > :now ";
+            case WAITING:
+                return "and b.status = 'WAITING' ";
+            case REJECTED:
+                return "and b.status = 'REJECTED' ";
+            default:
+                return "";
+        }
+    }
+}
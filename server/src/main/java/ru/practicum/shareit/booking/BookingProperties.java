@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки бронирования (shareit.booking.*).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.booking")
+public class BookingProperties {
+    /**
+     * Сериализация подтверждений броней одной вещи: local - блокировки в памяти узла (только один узел),
+     * db - дополнительно select ... for update строки вещи (обязателен для нескольких узлов).
+     */
+    private String lockMode = "local";
+    /**
+     * Число полос (stripes) блокировок в памяти, округляется вверх до степени двойки.
+     */
+    private int lockStripes = 1024;
+    /**
+     * Выдача броней пользователя: jdbc - SQL-запрос прямо в DTO (BookingJdbcRepository),
+     * jpa - через сущности BookingRepository.
+     */
+    private String readMode = "jdbc";
+    /**
+     * Сколько вещей держать в индексе подтвержденных таймслотов; при переполнении индекс сбрасывается
+     * и слоты перечитываются из базы при следующем обращении.
+     */
+    private int slotIndexSize = 100_000;
+
+    public boolean isDbLock() {
+        return "db".equalsIgnoreCase(lockMode);
+    }
+
+    public boolean isJdbcRead() {
+        return "jdbc".equalsIgnoreCase(readMode);
+    }
+}
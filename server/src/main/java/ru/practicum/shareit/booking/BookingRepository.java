@@ -1,49 +1,204 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.TimeSlot;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    // План загрузки для выдачи броней: вещь с владельцем и арендатор одним запросом.
+    String WITH_ITEM_AND_BOOKER = "Booking.withItemAndBooker";
 
+    @Override
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByBooker_Id(Long bookerId, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByBooker_IdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByBooker_IdAndStartBeforeAndEndAfter(
             Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByBooker_IdAndEndBefore(Long bookerId, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByBooker_IdAndStartAfter(Long bookerId, LocalDateTime start, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByItem_Owner_Id(Long ownerId, Pageable pageable);
 
     List<Booking> findByItem_Id(Long itemId);
 
+    /**
+     * Последняя и следующая брони для каждой из вещей одним запросом.
+     * Бронь, стартующая ровно в момент now, не считается ни последней, ни следующей.
+     *
+     * @param itemIds ID вещей.
+     * @param now     Текущий момент.
+     * @return Строки [item_id, booking_id, booker_id, is_last], не больше двух на вещь.
+     */
+    @Query(value = " select nb.item_id, nb.booking_id, nb.booker_id, nb.is_last " +
+            "from (select b.item_id, b.booking_id, b.booker_id, " +
+            "             case when b.start_date < ?2 then 1 else 0 end as is_last, " +
+            "             row_number() over (partition by b.item_id, case when b.start_date < ?2 then 1 else 0 end " +
+            "                                order by case when b.start_date < ?2 then b.start_date end desc, " +
+            "                                         b.start_date) as rn " +
+            "      from bookings b " +
+            "      where b.item_id in (?1) and " +
+            "            b.start_date <> ?2) nb " +
+            "where nb.rn = 1 ", nativeQuery = true)
+    List<Object[]> findNearestBookings(Collection<Long> itemIds, LocalDateTime now);
+
     @Query(" select b " +
             "from Booking b " +
-            "where b.id <> ?1 and " +
+            "where (?1 is null or b.id <> ?1) and " +
             "      b.item.id = ?4 and " +
-            "      (b.start between ?2 and ?3 or " +
-            "      b.end between ?2 and ?3) ")
-        // Ищет пересечения таймслотов для выбранной вещи.
-    List<Booking> findBusyTimeSlot(Long bookingId, LocalDateTime start, LocalDateTime end, Long itemId);
+            "      b.status = ?5 and " +
+            "      b.start <= ?3 and " +
+            "      b.end >= ?2 ")
+        // Ищет пересечения таймслотов для выбранной вещи, в т.ч. брони, целиком накрывающие интервал.
+        // Нужен только факт пересечения, поэтому связи брони не загружаются.
+    List<Booking> findBusyTimeSlot(Long bookingId, LocalDateTime start, LocalDateTime end, Long itemId,
+                                   BookingStatus status);
+
+    /**
+     * Текущий статус брони, прочитанный из базы в обход кэша контекста персистентности.
+     */
+    @Query(" select b.status from Booking b where b.id = ?1 ")
+    BookingStatus findStatusById(Long bookingId);
+
+    /**
+     * Таймслоты броней вещи в указанном статусе, без загрузки связанных сущностей.
+     *
+     * @param itemId ID вещи.
+     * @param status Статус брони.
+     * @return Список таймслотов.
+     */
+    @Query(" select new ru.practicum.shareit.booking.model.TimeSlot(b.item.id, b.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and " +
+            "      b.status = ?2 ")
+    List<TimeSlot> findTimeSlots(Long itemId, BookingStatus status);
 
+    /**
+     * Таймслоты броней сразу нескольких вещей в указанном статусе.
+     *
+     * @param itemIds ID вещей.
+     * @param status  Статус брони.
+     * @return Список таймслотов всех переданных вещей.
+     */
+    @Query(" select new ru.practicum.shareit.booking.model.TimeSlot(b.item.id, b.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.item.id in ?1 and " +
+            "      b.status = ?2 ")
+    List<TimeSlot> findTimeSlotsByItemIds(Collection<Long> itemIds, BookingStatus status);
+
+    /**
+     * Вещи, у которых есть бронь в указанном статусе, пересекающая интервал [start, end].
+     *
+     * @param itemIds ID вещей-кандидатов.
+     * @param start   Начало интервала.
+     * @param end     Окончание интервала.
+     * @param status  Статус брони.
+     * @return ID занятых вещей.
+     */
+    @Query(" select distinct b.item.id " +
+            "from Booking b " +
+            "where b.item.id in ?1 and " +
+            "      b.status = ?4 and " +
+            "      b.start <= ?3 and " +
+            "      b.end >= ?2 ")
+    List<Long> findBusyItemIds(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end,
+                               BookingStatus status);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByItem_Owner_IdAndStartBeforeAndEndAfter(
             Long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByItem_Owner_IdAndEndBefore(Long ownerId, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByItem_Owner_IdAndStartAfter(Long ownerId, LocalDateTime start, Pageable pageable);
 
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
     List<Booking> findByItem_Owner_IdAndStatus(Long ownerId, BookingStatus status, Pageable pageable);
 
+    // Постраничная выдача по ключу (start, id): брони, идущие в сортировке после курсора.
+    String AFTER_CURSOR = " (b.start < ?2 or (b.start = ?2 and b.id > ?3)) ";
+    String ORDER_BY_START = " order by b.start desc, b.id ";
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.booker.id = ?1 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findBookerAfterCursor(Long userId, LocalDateTime start, Long id, Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.booker.id = ?1 and b.status = ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findBookerAfterCursorByStatus(Long userId, LocalDateTime start, Long id, BookingStatus status,
+                                                Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.booker.id = ?1 and b.start < ?4 and b.end > ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findBookerAfterCursorCurrent(Long userId, LocalDateTime start, Long id, LocalDateTime now,
+                                               Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.booker.id = ?1 and b.end < ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findBookerAfterCursorPast(Long userId, LocalDateTime start, Long id, LocalDateTime now,
+                                            Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.booker.id = ?1 and b.start > ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findBookerAfterCursorFuture(Long userId, LocalDateTime start, Long id, LocalDateTime now,
+                                              Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.item.owner.id = ?1 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findOwnerAfterCursor(Long userId, LocalDateTime start, Long id, Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.status = ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findOwnerAfterCursorByStatus(Long userId, LocalDateTime start, Long id, BookingStatus status,
+                                               Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.start < ?4 and b.end > ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findOwnerAfterCursorCurrent(Long userId, LocalDateTime start, Long id, LocalDateTime now,
+                                              Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.end < ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findOwnerAfterCursorPast(Long userId, LocalDateTime start, Long id, LocalDateTime now,
+                                           Pageable pageable);
+
+    @EntityGraph(WITH_ITEM_AND_BOOKER)
+    @Query(" select b from Booking b " +
+            "where b.item.owner.id = ?1 and b.start > ?4 and " + AFTER_CURSOR + ORDER_BY_START)
+    List<Booking> findOwnerAfterCursorFuture(Long userId, LocalDateTime start, Long id, LocalDateTime now,
+                                             Pageable pageable);
+
     /**
      * Поиск броней вещи выбранным пользователем в указанном статусе, завершенных ранее указанного срока.
      *
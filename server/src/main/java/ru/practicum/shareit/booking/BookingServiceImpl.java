@@ -14,8 +14,10 @@ import ru.practicum.shareit.exception.ValidationDataException;
 import ru.practicum.shareit.exception.ValidationNotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.KnownUserCache;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserLookup;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -25,17 +27,27 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    // Второй ключ сортировки нужен для стабильного порядка броней с одинаковым временем старта;
+    // по возрастанию ID, то есть в порядке добавления, как и выдавались такие брони без него.
+    private static final Sort SORT_BY_START = Sort.by("start").descending().and(Sort.by("id").ascending());
+
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final BookingProperties properties;
+    private final UserLookup userLookup;
+    private final KnownUserCache knownUsers;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final BookingTimeSlotIndex timeSlotIndex;
+    private final ItemBookingLock itemLock;
 
     @Override
     public BookingDto add(BookingInDto bookingInDto) {
-        User booker = userRepository.findById(bookingInDto.getBookerId())
+        User booker = userLookup.findById(bookingInDto.getBookerId())
                 .orElseThrow(() -> new ValidationNotFoundException(String
                         .format("Арендатор ID=%s не найден.", bookingInDto.getBookerId())));
-        Item item = itemRepository.findById(bookingInDto.getItemId())
+        knownUsers.remember(booker.getId());
+        Item item = itemRepository.findWithOwnerAndRequestById(bookingInDto.getItemId())
                 .orElseThrow(() -> new ValidationNotFoundException(String
                         .format("Вещь ID=%s не найдена.", bookingInDto.getItemId())));
         if (!item.getAvailable())
@@ -55,7 +67,7 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ValidationNotFoundException(String
                         .format("Бронь ID=%s не найдена.", bookingId)));
-        if (!userRepository.existsById(ownerId))
+        if (!knownUsers.exists(ownerId))
             throw new ValidationNotFoundException(String
                     .format("Владелец ID=%s не найден.", ownerId));
         if (!booking.getItem().getOwner().getId().equals(ownerId))
@@ -63,24 +75,12 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationNotFoundException(String
                     .format("Невозможно обновить. Вещь принадлежит владельцу ID=%s, запрос прислан от ID=%s.",
                             booking.getItem().getOwner().getId(), ownerId));
-        if (booking.getStatus() != BookingStatus.WAITING)
-            throw new ValidationDataException(String
-                    .format("Бронь ID=%s не в статусе WAITING.", bookingId));
-        BookingStatus newStatus;
-        if (approved) {
-            checkTimeSlot(booking);
-            newStatus = BookingStatus.APPROVED;
-        } else {
-            newStatus = BookingStatus.REJECTED;
-        }
-        booking.setStatus(newStatus);
-        booking = bookingRepository.save(booking);
-        return bookingMapper.toBookingDto(booking);
+        return itemLock.execute(booking.getItem().getId(), () -> confirmLocked(booking, approved));
     }
 
     @Override
     public BookingDto find(Long bookingId, Long requesterId) {
-        if (!userRepository.existsById(requesterId))
+        if (!knownUsers.exists(requesterId))
             throw new ValidationNotFoundException(String
                     .format("Пользователь ID=%s не найден.", requesterId));
         Booking booking = bookingRepository.findById(bookingId)
@@ -95,14 +95,19 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> findByUser(FindStatus state, Long bookerId, Long from, Integer size) {
-        if (!userRepository.existsById(bookerId))
+    public List<BookingDto> findByUser(FindStatus state, Long bookerId, Long from, Integer size, String cursor) {
+        if (!knownUsers.exists(bookerId))
             throw new ValidationNotFoundException(String
                     .format("Пользователь ID=%s не найден.", bookerId));
-        List<Booking> bookingList = Collections.emptyList();
         LocalDateTime now = LocalDateTime.now();
+        if (properties.isJdbcRead())
+            return bookingJdbcRepository.findByBooker(
+                    state, bookerId, now, decodeCursor(cursor), offsetOf(from, size), size);
+        if (cursor != null)
+            return findByUserAfterCursor(state, bookerId, PageCursor.decode(cursor, true), size, now);
+        List<Booking> bookingList = Collections.emptyList();
         int page = Math.toIntExact(from / size);
-        Pageable pageable = PageRequest.of(page, size, Sort.by("start").descending());
+        Pageable pageable = PageRequest.of(page, size, SORT_BY_START);
         switch (state) {
             case CURRENT:
                 bookingList = bookingRepository.findByBooker_IdAndStartBeforeAndEndAfter(bookerId, now, now, pageable);
@@ -129,14 +134,19 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> findItemsForUser(FindStatus state, Long ownerId, Long from, Integer size) {
-        if (!userRepository.existsById(ownerId))
+    public List<BookingDto> findItemsForUser(FindStatus state, Long ownerId, Long from, Integer size, String cursor) {
+        if (!knownUsers.exists(ownerId))
             throw new ValidationNotFoundException(String
                     .format("Пользователь ID=%s не найден.", ownerId));
-        List<Booking> bookingList = Collections.emptyList();
         LocalDateTime now = LocalDateTime.now();
+        if (properties.isJdbcRead())
+            return bookingJdbcRepository.findByOwner(
+                    state, ownerId, now, decodeCursor(cursor), offsetOf(from, size), size);
+        if (cursor != null)
+            return findItemsForUserAfterCursor(state, ownerId, PageCursor.decode(cursor, true), size, now);
+        List<Booking> bookingList = Collections.emptyList();
         int page = Math.toIntExact(from / size);
-        Pageable pageable = PageRequest.of(page, size, Sort.by("start").descending());
+        Pageable pageable = PageRequest.of(page, size, SORT_BY_START);
         switch (state) {
             case CURRENT:
                 bookingList = bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(ownerId, now, now, pageable);
@@ -162,6 +172,121 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    // Страница, следующая за курсором. Стоимость не зависит от глубины страницы.
+    private List<BookingDto> findByUserAfterCursor(FindStatus state, Long bookerId, PageCursor cursor,
+                                                   Integer size, LocalDateTime now) {
+        List<Booking> bookingList = Collections.emptyList();
+        LocalDateTime start = cursor.getStart();
+        Long id = cursor.getId();
+        Pageable pageable = PageRequest.of(0, size);
+        switch (state) {
+            case CURRENT:
+                bookingList = bookingRepository.findBookerAfterCursorCurrent(bookerId, start, id, now, pageable);
+                break;
+            case PAST:
+                bookingList = bookingRepository.findBookerAfterCursorPast(bookerId, start, id, now, pageable);
+                break;
+            case FUTURE:
+                bookingList = bookingRepository.findBookerAfterCursorFuture(bookerId, start, id, now, pageable);
+                break;
+            case WAITING:
+                bookingList = bookingRepository.findBookerAfterCursorByStatus(
+                        bookerId, start, id, BookingStatus.WAITING, pageable);
+                break;
+            case REJECTED:
+                bookingList = bookingRepository.findBookerAfterCursorByStatus(
+                        bookerId, start, id, BookingStatus.REJECTED, pageable);
+                break;
+            case ALL:
+                bookingList = bookingRepository.findBookerAfterCursor(bookerId, start, id, pageable);
+                break;
+        }
+        return bookingList.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<BookingDto> findItemsForUserAfterCursor(FindStatus state, Long ownerId, PageCursor cursor,
+                                                         Integer size, LocalDateTime now) {
+        List<Booking> bookingList = Collections.emptyList();
+        LocalDateTime start = cursor.getStart();
+        Long id = cursor.getId();
+        Pageable pageable = PageRequest.of(0, size);
+        switch (state) {
+            case CURRENT:
+                bookingList = bookingRepository.findOwnerAfterCursorCurrent(ownerId, start, id, now, pageable);
+                break;
+            case PAST:
+                bookingList = bookingRepository.findOwnerAfterCursorPast(ownerId, start, id, now, pageable);
+                break;
+            case FUTURE:
+                bookingList = bookingRepository.findOwnerAfterCursorFuture(ownerId, start, id, now, pageable);
+                break;
+            case WAITING:
+                bookingList = bookingRepository.findOwnerAfterCursorByStatus(
+                        ownerId, start, id, BookingStatus.WAITING, pageable);
+                break;
+            case REJECTED:
+                bookingList = bookingRepository.findOwnerAfterCursorByStatus(
+                        ownerId, start, id, BookingStatus.REJECTED, pageable);
+                break;
+            case ALL:
+                bookingList = bookingRepository.findOwnerAfterCursor(ownerId, start, id, pageable);
+                break;
+        }
+        return bookingList.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    private static PageCursor decodeCursor(String cursor) {
+        return cursor != null ? PageCursor.decode(cursor, true) : null;
+    }
+
+    // Смещение первой строки страницы: та же страница from / size, что и у PageRequest.
+    private static long offsetOf(Long from, Integer size) {
+        return from / size * size;
+    }
+
+    /**
+     * Подтверждение под блокировкой вещи: проверка занятости и сохранение не перемежаются
+     * с подтверждением других броней этой вещи.
+     */
+    private BookingDto confirmLocked(Booking booking, Boolean approved) {
+        // Статус перечитывается под блокировкой: параллельный запрос мог уже обработать эту бронь.
+        if (bookingRepository.findStatusById(booking.getId()) != BookingStatus.WAITING)
+            throw new ValidationDataException(String
+                    .format("Бронь ID=%s не в статусе WAITING.", booking.getId()));
+        BookingStatus newStatus;
+        if (approved) {
+            checkTimeSlot(booking);
+            newStatus = BookingStatus.APPROVED;
+        } else {
+            newStatus = BookingStatus.REJECTED;
+        }
+        booking.setStatus(newStatus);
+        Booking saved = bookingRepository.save(booking);
+        // В режиме db подтверждение идет в транзакции блокировки, и слот попадает в индекс после ее фиксации.
+        if (itemLock.isDbLock())
+            timeSlotIndex.addAfterCommit(saved);
+        else
+            timeSlotIndex.add(saved);
+        // В ответ идет прочитанная бронь: у результата merge вещь и арендатор - незагруженные ссылки.
+        return bookingMapper.toBookingDto(booking);
+    }
+
+    /**
+     * В режиме блокировки db подтверждения могут идти с разных узлов, а индекс таймслотов у каждого
+     * узла свой, поэтому пересечения ищутся запросом в базу под блокировкой строки вещи.
+     */
+    private boolean isBusy(Booking booking) {
+        if (itemLock.isDbLock())
+            return !bookingRepository.findBusyTimeSlot(booking.getId(), booking.getStart(), booking.getEnd(),
+                    booking.getItem().getId(), BookingStatus.APPROVED).isEmpty();
+        return timeSlotIndex.isBusy(
+                booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
     private void checkTimeSlot(Booking booking) {
         if (booking.getEnd().isBefore(booking.getStart()))
             throw new ValidationDataException("Выбранное время старта бронирования позже окончания.");
@@ -169,9 +294,7 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationDataException("Выбранное время окончания бронирования в прошлом.");
         if (booking.getStart().isBefore(LocalDateTime.now()))
             throw new ValidationDataException("Выбранное время старта бронирования в прошлом.");
-        if (bookingRepository.findBusyTimeSlot(
-                        booking.getId(), booking.getStart(), booking.getEnd(), booking.getItem().getId())
-                .stream().anyMatch(b -> b.getStatus() == BookingStatus.APPROVED))
+        if (isBusy(booking))
             throw new ValidationDataException("Выбранное время бронирования уже занято.");
     }
 }
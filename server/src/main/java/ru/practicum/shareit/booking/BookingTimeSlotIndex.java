@@ -0,0 +1,185 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.stream.Collectors;
+
+/**
+ * Индекс подтвержденных (APPROVED) таймслотов по вещам.
+ * Слоты вещи загружаются из базы одним запросом при первом обращении,
+ * дальше индекс поддерживается сервисом бронирований при подтверждении брони.
+ * Новые подтвержденные слоты одной вещи не пересекаются, но в базе могут остаться пересекающиеся
+ * старые брони. Поэтому проверка занятости идет назад от окончания проверяемого слота и
+ * останавливается на слотах, стартовавших раньше его начала больше чем на самую длинную бронь вещи:
+ * они уже не могут до него дотянуться.
+ * Число вещей в индексе ограничено shareit.booking.slot-index-size: при переполнении индекс
+ * сбрасывается, и слоты вещей перечитываются из базы при следующем обращении.
+ */
+@Component
+public class BookingTimeSlotIndex {
+    private static final int PRELOAD_BATCH_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final int maxItems;
+    private final Map<Long, ItemSlots> slotsByItem = new ConcurrentHashMap<>();
+
+    public BookingTimeSlotIndex(BookingRepository bookingRepository, BookingProperties properties) {
+        this.bookingRepository = bookingRepository;
+        this.maxItems = properties.getSlotIndexSize();
+    }
+
+    /**
+     * Проверка пересечения таймслота с подтвержденными бронированиями вещи.
+     * Границы включаются, как и в прежней проверке через between.
+     *
+     * @param itemId    ID вещи.
+     * @param bookingId ID проверяемой брони (исключается из проверки), может быть null.
+     * @param start     Время старта.
+     * @param end       Время окончания.
+     * @return true, если время уже занято.
+     */
+    public boolean isBusy(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemSlots itemSlots = slotsOf(itemId);
+        TimeSlot probe = new TimeSlot(itemId, Long.MAX_VALUE, end, end);
+        Iterator<TimeSlot> candidates = itemSlots.slots.headSet(probe, true).descendingIterator();
+        while (candidates.hasNext()) {
+            TimeSlot slot = candidates.next();
+            // Этот и более ранние слоты заканчиваются раньше start, даже самые длинные.
+            if (slot.getStart().plusNanos(itemSlots.maxDurationNanos.get()).isBefore(start))
+                return false;
+            if (!slot.getBookingId().equals(bookingId) && !slot.getEnd().isBefore(start))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Отбор вещей, свободных весь интервал [start, end]. Порядок исходного списка сохраняется.
+     * Слоты вещей, которых еще нет в индексе, загружаются пакетами одним запросом на пакет,
+     * а не по запросу на каждую вещь.
+     *
+     * @param itemIds ID вещей-кандидатов.
+     * @param start   Начало интервала.
+     * @param end     Окончание интервала.
+     * @return ID свободных вещей.
+     */
+    public List<Long> filterFree(List<Long> itemIds, LocalDateTime start, LocalDateTime end) {
+        preload(itemIds);
+        return itemIds.stream()
+                .filter(itemId -> !isBusy(itemId, null, start, end))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Добавляет в индекс подтвержденную бронь. Брони в других статусах игнорируются.
+     */
+    public void add(Booking booking) {
+        if (booking.getStatus() != BookingStatus.APPROVED)
+            return;
+        slotsOf(booking.getItem().getId())
+                .add(new TimeSlot(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd()));
+    }
+
+    /**
+     * Добавляет бронь, сохраненную в текущей транзакции, после ее фиксации: при откате в индексе
+     * не остается слота, которого нет в базе. Без активной транзакции - сразу, как add.
+     */
+    public void addAfterCommit(Booking booking) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(booking);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(booking);
+            }
+        });
+    }
+
+    /**
+     * Сброс индекса, например, после каскадного удаления бронирований в базе.
+     * Слоты будут перечитаны при следующем обращении.
+     */
+    public void clear() {
+        slotsByItem.clear();
+    }
+
+    private void preload(List<Long> itemIds) {
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> !slotsByItem.containsKey(itemId))
+                .distinct()
+                .collect(Collectors.toList());
+        for (int i = 0; i < missing.size(); i += PRELOAD_BATCH_SIZE) {
+            List<Long> batch = missing.subList(i, Math.min(i + PRELOAD_BATCH_SIZE, missing.size()));
+            Map<Long, ItemSlots> loaded = new HashMap<>();
+            for (Long itemId : batch)
+                loaded.put(itemId, new ItemSlots());
+            for (TimeSlot slot : bookingRepository.findTimeSlotsByItemIds(batch, BookingStatus.APPROVED))
+                loaded.get(slot.getItemId()).add(slot);
+            loaded.forEach(this::putIfAbsent);
+        }
+    }
+
+    private ItemSlots slotsOf(Long itemId) {
+        ItemSlots slots = slotsByItem.get(itemId);
+        if (slots != null)
+            return slots;
+        ItemSlots loaded = new ItemSlots();
+        bookingRepository.findTimeSlots(itemId, BookingStatus.APPROVED).forEach(loaded::add);
+        return putIfAbsent(itemId, loaded);
+    }
+
+    /**
+     * Если слоты вещи успели загрузиться параллельно, остается уже поддерживаемый набор.
+     */
+    private ItemSlots putIfAbsent(Long itemId, ItemSlots loaded) {
+        ItemSlots slots = slotsByItem.putIfAbsent(itemId, loaded);
+        if (slots != null)
+            return slots;
+        evictOverflow(itemId);
+        return loaded;
+    }
+
+    /**
+     * Переполненный индекс сбрасывается целиком, кроме только что загруженной вещи, - как полоса
+     * ConcurrentLongSet. Вытесненные вещи перечитываются из базы при следующем обращении.
+     */
+    private void evictOverflow(Long keep) {
+        if (slotsByItem.size() <= maxItems)
+            return;
+        ItemSlots kept = slotsByItem.get(keep);
+        slotsByItem.clear();
+        if (kept != null)
+            slotsByItem.putIfAbsent(keep, kept);
+    }
+
+    /**
+     * Слоты одной вещи и длительность самого длинного из них.
+     */
+    private static class ItemSlots {
+        private final NavigableSet<TimeSlot> slots = new ConcurrentSkipListSet<>();
+        private final LongAccumulator maxDurationNanos = new LongAccumulator(Math::max, 0);
+
+        void add(TimeSlot slot) {
+            // Длительность учитывается до появления слота: читающий его поток уже видит новую границу.
+            maxDurationNanos.accumulate(Duration.between(slot.getStart(), slot.getEnd()).toNanos());
+            slots.add(slot);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Сериализация операций над бронями одной вещи.
+ * На узле действует набор полос блокировок: вещь попадает в полосу по хешу ID, поэтому операции
+ * над разными вещами почти всегда идут параллельно, а над одной - строго по очереди.
+ * В режиме db операция дополнительно выполняется в транзакции под select ... for update строки вещи,
+ * что сериализует ее и между узлами.
+ */
+@Component
+public class ItemBookingLock {
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean isDbLock;
+    private final ReentrantLock[] stripes;
+
+    public ItemBookingLock(ItemRepository itemRepository, TransactionTemplate transactionTemplate,
+                           BookingProperties properties) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.isDbLock = properties.isDbLock();
+        int requested = properties.getLockStripes();
+        int count = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++)
+            stripes[i] = new ReentrantLock();
+    }
+
+    public boolean isDbLock() {
+        return isDbLock;
+    }
+
+    /**
+     * Выполняет действие, пока никакая другая операция над бронями этой вещи не выполняется.
+     */
+    public <T> T execute(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = stripeOf(itemId);
+        lock.lock();
+        try {
+            if (!isDbLock)
+                return action.get();
+            return transactionTemplate.execute(status -> {
+                itemRepository.findByIdForUpdate(itemId)
+                        .orElseThrow(() -> new ValidationNotFoundException(String
+                                .format("Вещь ID=%s не найдена.", itemId)));
+                return action.get();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeOf(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Таймслот бронирования без привязки к сущностям вещи и арендатора.
+ * Упорядочивается по времени старта, при равенстве - по ID брони.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+public class TimeSlot implements Comparable<TimeSlot> {
+    private static final Comparator<TimeSlot> ORDER = Comparator
+            .comparing(TimeSlot::getStart)
+            .thenComparing(TimeSlot::getBookingId);
+
+    private Long itemId;
+    private Long bookingId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Override
+    public int compareTo(TimeSlot other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -1,16 +1,11 @@
 package ru.practicum.shareit.item;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
 
 @Component
-@RequiredArgsConstructor
 public class CommentMapper {
-    private final UserRepository userRepository;
 
     public Comment toComment(CommentDto commentDto) {
         return Comment.builder()
@@ -21,13 +16,14 @@ public class CommentMapper {
                 .build();
     }
 
-    public CommentDto toCommentDto(Comment comment) {
+    // Имя автора передается сервисом: для списков оно приходит вместе с комментариями одним запросом.
+    public CommentDto toCommentDto(Comment comment, String authorName) {
         return CommentDto.builder()
                 .id(comment.getId())
                 .text(comment.getText())
                 .itemId(comment.getItemId())
                 .authorId(comment.getAuthorId())
-                .authorName(userRepository.findById(comment.getAuthorId()).map(User::getName).orElse(null))
+                .authorName(authorName)
                 .created(comment.getCreated())
                 .build();
     }
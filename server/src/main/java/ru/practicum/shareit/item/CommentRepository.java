@@ -1,12 +1,28 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByItemId(Long itemId);
-}
 
+    /**
+     * Комментарии к вещам вместе с именами авторов одним запросом.
+     *
+     * @param itemIds ID вещей.
+     * @return Список комментариев, упорядоченный по ID.
+     */
+    @Query(" select new ru.practicum.shareit.item.dto.CommentDto(" +
+            "       c.id, c.text, c.itemId, c.authorId, u.name, c.created) " +
+            "from Comment c, User u " +
+            "where u.id = c.authorId and " +
+            "      c.itemId in ?1 " +
+            "order by c.id ")
+    List<CommentDto> findDtoByItemIdIn(Collection<Long> itemIds);
+}
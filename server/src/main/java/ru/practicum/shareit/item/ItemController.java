@@ -2,6 +2,8 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,7 +16,9 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemViewDto;
+import ru.practicum.shareit.util.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.util.Constants.HEADER_ID;
@@ -52,21 +56,41 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemViewDto> getListByOwner(@RequestHeader(HEADER_ID) Long ownerId,
-                                            @RequestParam(name = "from", defaultValue = "0") Long from,
-                                            @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<ItemViewDto>> getListByOwner(
+            @RequestHeader(HEADER_ID) Long ownerId,
+            @RequestParam(name = "from", defaultValue = "0") Long from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Сервер принял запрос \"Получить все вещи владельца\". " +
-                "ownerID={}, from={}, size={}", ownerId, from, size);
-        return itemService.getListByOwner(ownerId, from, size);
+                "ownerID={}, from={}, size={}, cursor={}", ownerId, from, size, cursor);
+        List<ItemViewDto> items = itemService.getListByOwner(ownerId, from, size, cursor);
+        return PageCursor.withNext(items, size, item -> PageCursor.encode(item.getId()));
     }
 
     @GetMapping("/search")
-    public List<ItemDto> findItems(@RequestParam String text,
-                                   @RequestParam(name = "from", defaultValue = "0") Long from,
-                                   @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<ItemDto>> findItems(
+            @RequestParam String text,
+            @RequestParam(name = "fuzzy", defaultValue = "false") Boolean fuzzy,
+            @RequestParam(name = "availableFrom", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableFrom,
+            @RequestParam(name = "availableTo", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableTo,
+            @RequestParam(name = "from", defaultValue = "0") Long from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Сервер принял запрос \"Найти вещь\". " +
-                "text={}, from={}, size={}", text, from, size);
-        return itemService.findItems(text, from, size);
+                "text={}, fuzzy={}, availableFrom={}, availableTo={}, from={}, size={}, cursor={}",
+                text, fuzzy, availableFrom, availableTo, from, size, cursor);
+        List<ItemDto> items = itemService.findItems(text, fuzzy, availableFrom, availableTo, from, size, cursor);
+        return PageCursor.withNext(items, size, item -> PageCursor.encode(item.getId()));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Сервер принял запрос \"Подсказать названия вещей\". " +
+                "prefix={}, size={}", prefix, size);
+        return itemService.suggest(prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.BatchingProperties;
+import ru.practicum.shareit.util.MicroBatcher;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск вещей по ID, как UserLookup для пользователей: пакетом - только проверка существования,
+ * сама вещь читается через репозиторий в сессии вызывающего, вместе с владельцем и запросом.
+ */
+@Component
+public class ItemLookup {
+    private final ItemRepository itemRepository;
+    private final boolean isBatching;
+    private final MicroBatcher<Long, Boolean> existing;
+
+    public ItemLookup(ItemRepository itemRepository, BatchingProperties properties) {
+        this.itemRepository = itemRepository;
+        this.isBatching = properties.isEnabled();
+        this.existing = new MicroBatcher<>(this::loadExisting, properties.getWindow().toNanos(),
+                properties.getMaxBatchSize());
+    }
+
+    public Optional<Item> findById(Long id) {
+        return itemRepository.findWithOwnerAndRequestById(id);
+    }
+
+    public boolean existsById(Long id) {
+        return isBatching ? existing.load(id) != null : itemRepository.existsById(id);
+    }
+
+    private Map<Long, Boolean> loadExisting(Collection<Long> ids) {
+        return itemRepository.findExistingIds(ids).stream()
+                .collect(Collectors.toMap(Function.identity(), id -> true));
+    }
+}
@@ -1,11 +1,7 @@
 package ru.practicum.shareit.item;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.booking.BookingMapper;
-import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingViewDto;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemViewDto;
@@ -14,18 +10,10 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
-import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class ItemMapper {
-    private final BookingRepository bookingRepository;
-    private final CommentRepository commentRepository;
-    private final BookingMapper bookingMapper;
-    private final CommentMapper commentMapper;
 
     public ItemDto toItemDto(Item item) {
         return ItemDto.builder()
@@ -51,36 +39,16 @@ public class ItemMapper {
     }
 
     /**
-     * @param item             Вещь, которую нужно просмотреть.
-     * @param isAddBookingDate Флаг, нужно ли добавлять даты бронирования.
+     * Данные о бронированиях и комментариях собираются сервисом заранее, пачкой для всех вещей страницы.
+     *
+     * @param item        Вещь, которую нужно просмотреть.
+     * @param lastBooking Последнее бронирование (null, если не нужно или нет).
+     * @param nextBooking Ближайшее бронирование (null, если не нужно или нет).
+     * @param comments    Комментарии к вещи.
      * @return DTO для просмотра вещи.
      */
-    public ItemViewDto toItemViewDto(Item item, boolean isAddBookingDate) {
-        BookingViewDto lastBooking;
-        BookingViewDto nextBooking;
-        List<CommentDto> comments;
-
-        if (isAddBookingDate) {
-            List<Booking> bookingList = bookingRepository.findByItem_Id(item.getId());
-            LocalDateTime now = LocalDateTime.now();
-            lastBooking = bookingList.stream()
-                    .filter(b -> b.getStart().isBefore(now))
-                    .max(Comparator.comparing((Booking::getStart)))
-                    .map(bookingMapper::toBookingViewDto).orElse(null);
-            nextBooking = bookingList.stream()
-                    .filter(b -> b.getStart().isAfter(now))
-                    .min(Comparator.comparing((Booking::getStart)))
-                    .map(bookingMapper::toBookingViewDto).orElse(null);
-        } else {
-            lastBooking = null;
-            nextBooking = null;
-        }
-
-        comments = commentRepository.findByItemId(item.getId())
-                .stream()
-                .map(commentMapper::toCommentDto)
-                .collect(Collectors.toList());
-
+    public ItemViewDto toItemViewDto(Item item, BookingViewDto lastBooking, BookingViewDto nextBooking,
+                                     List<CommentDto> comments) {
         return ItemViewDto.builder()
                 .id(item.getId())
                 .name(item.getName())
@@ -1,16 +1,113 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    /**
+     * Вещи владельца. Результат (список ID) хранится в кэше запросов Hibernate, сами вещи - в кэше второго уровня.
+     */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "items-by-owner")})
     List<Item> findByOwner_Id(Long ownerId, Pageable pageable);
 
-    List<Item> findByNameOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(String name, String description, Pageable pageable);
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "items-by-owner")})
+    List<Item> findByOwner_IdAndIdGreaterThan(Long ownerId, Long id, Pageable pageable);
 
-    List<Item> findByRequest_Id(Long requestorId);
-}
+    List<Item> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Вещь с владельцем и запросом для новой брони. Запрос в базу, а не в кэш второго уровня:
+     * из кэша связи пришли бы незагруженными ссылками.
+     */
+    @EntityGraph("Item.withOwnerAndRequest")
+    Optional<Item> findWithOwnerAndRequestById(Long id);
+
+    /**
+     * Чтение вещи с блокировкой строки до конца транзакции (select ... for update).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(" select i from Item i where i.id = ?1 ")
+    Optional<Item> findByIdForUpdate(Long id);
+
+    /**
+     * Обход всех вещей пачками по возрастанию ID, без загрузки всей таблицы в память.
+     */
+    default void forEachBatch(int batchSize, Consumer<List<Item>> consumer) {
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = findByIdGreaterThan(lastId, PageRequest.of(0, batchSize, Sort.by("id")));
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Поиск доступных вещей по вхождению текста в название или описание.
+     *
+     * @param text    Искомый текст.
+     * @param afterId ID, после которого начинается страница (0 - с начала).
+     * @return Список вещей, упорядоченный по ID.
+     */
+    @Query(" select i from Item i " +
+            "where i.available = true and " +
+            "      i.id > ?2 and " +
+            "      (upper(i.name) like upper(concat('%', ?1, '%')) or " +
+            "       upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "order by i.id ")
+    List<Item> search(String text, Long afterId, Pageable pageable);
 
+    /**
+     * Поиск доступных вещей по тексту, у которых нет подтвержденных броней, пересекающих интервал.
+     *
+     * @param text    Искомый текст.
+     * @param afterId ID, после которого начинается страница (0 - с начала).
+     * @param start   Начало интервала.
+     * @param end     Окончание интервала.
+     * @param status  Статус брони, занимающей вещь.
+     * @return Список вещей, упорядоченный по ID.
+     */
+    @Query(" select i from Item i " +
+            "where i.available = true and " +
+            "      i.id > ?2 and " +
+            "      (upper(i.name) like upper(concat('%', ?1, '%')) or " +
+            "       upper(i.description) like upper(concat('%', ?1, '%'))) and " +
+            "      not exists (select b.id from Booking b " +
+            "                  where b.item = i and " +
+            "                        b.status = ?5 and " +
+            "                        b.start <= ?4 and " +
+            "                        b.end >= ?3) " +
+            "order by i.id ")
+    List<Item> searchAvailableBetween(String text, Long afterId, LocalDateTime start, LocalDateTime end,
+                                      BookingStatus status, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "items-by-request")})
+    List<Item> findByRequest_IdIn(Collection<Long> requestIds);
+
+    @Query(" select i.id from Item i where i.id in ?1 ")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query(" select i.id from Item i where i.owner.id = ?1 ")
+    List<Long> findIdsByOwnerId(Long ownerId);
+}
@@ -4,6 +4,7 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemViewDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -11,11 +12,14 @@ public interface ItemService {
 
     ItemViewDto getById(Long itemId, Long requesterId);
 
-    List<ItemViewDto> getListByOwner(Long ownerId, Long from, Integer size);
+    List<ItemViewDto> getListByOwner(Long ownerId, Long from, Integer size, String cursor);
 
     ItemDto update(ItemDto itemDto, Long itemId, Long ownerId);
 
-    List<ItemDto> findItems(String text, Long from, Integer size);
+    List<ItemDto> findItems(String text, Boolean fuzzy, LocalDateTime availableFrom, LocalDateTime availableTo,
+                            Long from, Integer size, String cursor);
+
+    List<String> suggest(String prefix, Integer size);
 
     CommentDto addComment(CommentDto commentDto, Long itemId, Long userId);
 }
@@ -2,9 +2,10 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingViewDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.ValidationDataException;
 import ru.practicum.shareit.exception.ValidationForbiddenException;
@@ -14,33 +15,47 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemViewDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.AvailabilityWindow;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.KnownUserCache;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserLookup;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final Sort SORT_BY_ID = Sort.by("id");
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserLookup userLookup;
+    private final ItemLookup itemLookup;
+    private final KnownUserCache knownUsers;
     private final ItemRequestRepository requestRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemNameSuggester nameSuggester;
 
     @Override
     public ItemDto add(ItemDto itemDto, Long ownerId) {
-        User owner = userRepository.findById(ownerId)
+        User owner = userLookup.findById(ownerId)
                 .orElseThrow(() -> new ValidationNotFoundException(String
                         .format("Владелец ID=%s не найден.", ownerId)));
+        knownUsers.remember(owner.getId());
         ItemRequest request = itemDto.getRequestId() != null ?
                 requestRepository.findById(itemDto.getRequestId()).orElse(null) : null;
         Item item = itemMapper.toItem(itemDto, owner, request);
@@ -50,30 +65,33 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemViewDto getById(Long itemId, Long requesterId) {
-        Item item = itemRepository.findById(itemId)
+        Item item = itemLookup.findById(itemId)
                 .orElseThrow(() -> new ValidationNotFoundException(String
                         .format("Вещь ID=%s не найдена.", itemId)));
         // Если запрос от владельца вещи, то нужно добавить инфу о последнем и ближайшем бронированиях.
         boolean isAddBookingDate = item.getOwner().getId().equals(requesterId);
-        return itemMapper.toItemViewDto(item, isAddBookingDate);
+        return toItemViewDtos(List.of(item), isAddBookingDate).get(0);
     }
 
     @Override
-    public List<ItemViewDto> getListByOwner(Long ownerId, Long from, Integer size) {
-        if (!userRepository.existsById(ownerId)) throw new ValidationNotFoundException(String
+    public List<ItemViewDto> getListByOwner(Long ownerId, Long from, Integer size, String cursor) {
+        if (!knownUsers.exists(ownerId)) throw new ValidationNotFoundException(String
                 .format("Владелец ID=%s не найден.", ownerId));
-        int page = Math.toIntExact(from / size);
-        Pageable pageable = PageRequest.of(page, size);
-        List<Item> itemsByOwner = itemRepository.findByOwner_Id(ownerId, pageable);
-        return itemsByOwner.stream()
-                .sorted(Comparator.comparing(Item::getId))
-                .map(item -> itemMapper.toItemViewDto(item, true))
-                .collect(Collectors.toList());
+        List<Item> itemsByOwner;
+        if (cursor != null) {
+            Long afterId = PageCursor.decode(cursor, false).getId();
+            itemsByOwner = itemRepository.findByOwner_IdAndIdGreaterThan(
+                    ownerId, afterId, PageRequest.of(0, size, SORT_BY_ID));
+        } else {
+            int page = Math.toIntExact(from / size);
+            itemsByOwner = itemRepository.findByOwner_Id(ownerId, PageRequest.of(page, size, SORT_BY_ID));
+        }
+        return toItemViewDtos(itemsByOwner, true);
     }
 
     @Override
     public ItemDto update(ItemDto itemDto, Long itemId, Long ownerId) {
-        if (!userRepository.existsById(ownerId))
+        if (!knownUsers.exists(ownerId))
             throw new ValidationNotFoundException(String
                     .format("Владелец ID=%s не найден.", ownerId));
         Item item = itemRepository.findById(itemId)
@@ -90,24 +108,37 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> findItems(String text, Long from, Integer size) {
+    public List<ItemDto> findItems(String text, Boolean fuzzy, LocalDateTime availableFrom, LocalDateTime availableTo,
+                                   Long from, Integer size, String cursor) {
+        AvailabilityWindow window = null;
+        if (availableFrom != null || availableTo != null) {
+            if (availableFrom == null || availableTo == null)
+                throw new ValidationDataException("Для поиска свободных вещей нужны оба параметра: " +
+                        "availableFrom и availableTo.");
+            if (availableFrom.isAfter(availableTo))
+                throw new ValidationDataException("Начало интервала доступности позже окончания.");
+            window = new AvailabilityWindow(availableFrom, availableTo);
+        }
         if (text.isEmpty()) return Collections.emptyList();
-        int page = Math.toIntExact(from / size);
-        Pageable pageable = PageRequest.of(page, size);
-        List<Item> items = itemRepository.findByNameOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(
-                text, text, pageable);
-        return items.stream()
-                .filter(Item::getAvailable)
+        Long afterId = cursor != null ? PageCursor.decode(cursor, false).getId() : null;
+        return itemSearchEngine.search(text, fuzzy, window, afterId, from, size).stream()
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<String> suggest(String prefix, Integer size) {
+        if (prefix.isBlank()) return Collections.emptyList();
+        return nameSuggester.suggest(prefix, size);
+    }
+
     @Override
     public CommentDto addComment(CommentDto commentDto, Long itemId, Long userId) {
-        if (!userRepository.existsById(userId))
-            throw new ValidationNotFoundException(String
-                    .format("Пользователь ID=%s не найден.", userId));
-        if (!itemRepository.existsById(itemId))
+        User author = userLookup.findById(userId)
+                .orElseThrow(() -> new ValidationNotFoundException(String
+                        .format("Пользователь ID=%s не найден.", userId)));
+        knownUsers.remember(author.getId());
+        if (!itemLookup.existsById(itemId))
             throw new ValidationNotFoundException(String
                     .format("Вещь ID=%s не найдена.", itemId));
         if (bookingRepository.countingUsages(itemId, userId, BookingStatus.APPROVED, LocalDateTime.now()).size() == 0)
@@ -115,9 +146,51 @@ public class ItemServiceImpl implements ItemService {
                     .format("Пользователь ID=%s не пользовался вещью ID=%s.", userId, itemId));
         commentDto.setItemId(itemId);
         commentDto.setAuthorId(userId);
-        commentDto.setCreated(LocalDateTime.now());
+        // Точность колонки timestamp - микросекунды: ответ совпадает с тем, что потом прочитается из базы.
+        commentDto.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         Comment comment = commentMapper.toComment(commentDto);
         commentRepository.save(comment);
-        return commentMapper.toCommentDto(comment);
+        return commentMapper.toCommentDto(comment, author.getName());
+    }
+
+    /**
+     * Сборка DTO для просмотра вещей. Независимо от числа вещей выполняется не больше двух запросов:
+     * последняя/следующая брони по всем вещам и комментарии с именами авторов.
+     *
+     * @param items            Вещи, упорядоченные как в выдаче.
+     * @param isAddBookingDate Флаг, нужно ли добавлять даты бронирования.
+     * @return Список DTO в том же порядке.
+     */
+    private List<ItemViewDto> toItemViewDtos(List<Item> items, boolean isAddBookingDate) {
+        if (items.isEmpty()) return Collections.emptyList();
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, BookingViewDto> lastBookings = new HashMap<>();
+        Map<Long, BookingViewDto> nextBookings = new HashMap<>();
+        if (isAddBookingDate) {
+            for (Object[] row : bookingRepository.findNearestBookings(itemIds, LocalDateTime.now())) {
+                Long itemId = ((Number) row[0]).longValue();
+                BookingViewDto booking = BookingViewDto.builder()
+                        .id(((Number) row[1]).longValue())
+                        .bookerId(((Number) row[2]).longValue())
+                        .build();
+                if (((Number) row[3]).intValue() == 1)
+                    lastBookings.put(itemId, booking);
+                else
+                    nextBookings.put(itemId, booking);
+            }
+        }
+
+        Map<Long, List<CommentDto>> comments = commentRepository.findDtoByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
+
+        return items.stream()
+                .map(item -> itemMapper.toItemViewDto(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал, в течение которого вещь должна быть свободна. Границы включаются.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AvailabilityWindow {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск запросом в базу (like по названию и описанию), выдача упорядочена по ID.
+ * Нечеткий поиск не поддерживается: флаг fuzzy игнорируется.
+ * Интервал доступности проверяется подзапросом not exists по подтвержденным броням.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "db")
+@RequiredArgsConstructor
+public class DbItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, boolean fuzzy, AvailabilityWindow window, Long afterId, Long from,
+                             Integer size) {
+        PageRequest page = afterId != null
+                ? PageRequest.of(0, size)
+                : PageRequest.of(Math.toIntExact(from / size), size);
+        long startId = afterId != null ? afterId : 0L;
+        if (window == null)
+            return itemRepository.search(text, startId, page);
+        return itemRepository.searchAvailableBetween(
+                text, startId, window.getStart(), window.getEnd(), BookingStatus.APPROVED, page);
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingTimeSlotIndex;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск по инвертированному индексу в памяти с ранжированием BM25.
+ * Индекс строится из таблицы items при первом поиске и дальше обновляется при каждом сохранении вещи
+ * (см. ItemIndexListener). Найденные ID дочитываются из базы одним запросом; вещи, которых в базе
+ * уже нет (например, после каскадного удаления), выбрасываются из индекса.
+ * Интервал доступности проверяется до дочитывания вещей, поэтому смещение from считается уже
+ * по свободным вещам: с блокировками в памяти (lock-mode=local) - по индексу подтвержденных таймслотов
+ * узла (BookingTimeSlotIndex), с блокировками в базе (lock-mode=db) - запросом в базу на пакет
+ * кандидатов, так как брони подтверждают и другие узлы.
+ * <p>
+ * Если задан shareit.search.index-dir, индекс хранится на диске (сегмент + журнал) и после рестарта
+ * открывается без обращения к базе. Изменения, сделанные в базе в обход этого узла, при этом
+ * не подхватываются - для нескольких узлов каталог индекса нужно удалять перед стартом.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "index", matchIfMissing = true)
+@RequiredArgsConstructor
+public class IndexItemSearchEngine implements ItemSearchEngine {
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int FILTER_BATCH_SIZE = 1000;
+    private static final String SEGMENT_FILE = "items.seg";
+    private static final String WAL_FILE = "items.wal";
+
+    private final ItemRepository itemRepository;
+    private final BookingTimeSlotIndex timeSlotIndex;
+    private final BookingRepository bookingRepository;
+    private final BookingProperties bookingProperties;
+    private final SearchProperties properties;
+    private final ExecutorService mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-index-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean isMerging = new AtomicBoolean();
+    private InvertedIndex index;
+    private volatile boolean isLoaded;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (properties.getIndexDir() == null || properties.getIndexDir().isBlank()) {
+            index = new InvertedIndex();
+            return;
+        }
+        Path dir = Path.of(properties.getIndexDir());
+        Files.createDirectories(dir);
+        isLoaded = Files.exists(dir.resolve(SEGMENT_FILE));
+        index = InvertedIndex.open(dir.resolve(SEGMENT_FILE), dir.resolve(WAL_FILE));
+        if (isLoaded)
+            log.info("Поисковый индекс вещей открыт с диска, документов: {}.", index.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mergeExecutor.shutdown();
+    }
+
+    @Override
+    public List<Item> search(String text, boolean fuzzy, AvailabilityWindow window, Long afterId, Long from,
+                             Integer size) {
+        ensureLoaded();
+        List<Long> ranked = index.search(text, fuzzy);
+        if (window != null)
+            ranked = filterFree(ranked, window);
+        int position;
+        if (afterId != null) {
+            // Курсор указывает на последнюю отданную вещь. Если ее уже нет в выдаче, продолжать не с чего.
+            position = ranked.indexOf(afterId) + 1;
+            if (position == 0)
+                return Collections.emptyList();
+        } else {
+            position = Math.toIntExact(Math.min(from, ranked.size()));
+        }
+        List<Item> page = new ArrayList<>(size);
+        while (page.size() < size && position < ranked.size()) {
+            List<Long> chunk = ranked.subList(position, Math.min(position + size - page.size(), ranked.size()));
+            position += chunk.size();
+            Map<Long, Item> found = itemRepository.findAllById(chunk).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Long id : chunk) {
+                Item item = found.get(id);
+                if (item == null)
+                    index.remove(id);
+                else if (item.getAvailable())
+                    page.add(item);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void onSaved(Item item) {
+        index.put(item.getId(), item.getName() + " " + item.getDescription(), item.getAvailable());
+        if (index.isPersistent() && isLoaded && index.pendingSize() >= properties.getMergeThreshold()
+                && isMerging.compareAndSet(false, true))
+            mergeExecutor.execute(this::merge);
+    }
+
+    /**
+     * Индекс таймслотов у каждого узла свой и знает только подтверждения этого узла. В режиме db брони
+     * подтверждают несколько узлов, поэтому занятые вещи ищутся в базе одним запросом на пакет кандидатов.
+     */
+    private List<Long> filterFree(List<Long> itemIds, AvailabilityWindow window) {
+        if (!bookingProperties.isDbLock())
+            return timeSlotIndex.filterFree(itemIds, window.getStart(), window.getEnd());
+        Set<Long> busy = new HashSet<>();
+        for (int i = 0; i < itemIds.size(); i += FILTER_BATCH_SIZE) {
+            busy.addAll(bookingRepository.findBusyItemIds(
+                    itemIds.subList(i, Math.min(i + FILTER_BATCH_SIZE, itemIds.size())),
+                    window.getStart(), window.getEnd(), BookingStatus.APPROVED));
+        }
+        return itemIds.stream()
+                .filter(itemId -> !busy.contains(itemId))
+                .collect(Collectors.toList());
+    }
+
+    private void merge() {
+        try {
+            index.compact();
+        } catch (IOException e) {
+            log.error("Не удалось слить изменения поискового индекса в новый сегмент.", e);
+        } finally {
+            isMerging.set(false);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (isLoaded)
+            return;
+        synchronized (this) {
+            if (isLoaded)
+                return;
+            itemRepository.forEachBatch(LOAD_BATCH_SIZE, batch -> batch.forEach(this::onSaved));
+            if (index.isPersistent()) {
+                try {
+                    index.compact();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            isLoaded = true;
+            log.info("Поисковый индекс вещей построен, документов: {}.", index.size());
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package ru.practicum.shareit.item.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс документов (вещей) с ранжированием BM25.
+ * Словарь термов отсортирован, поэтому терм запроса сопоставляется со всеми термами индекса,
+ * начинающимися с него, - это заменяет поиск подстроки для начал слов.
+ * Документ попадает в выдачу, только если в нем нашлись все термы запроса.
+ * <p>
+ * Индекс бывает двух видов:
+ * <ul>
+ * <li>в памяти (конструктор без параметров);</li>
+ * <li>персистентный (open): основная часть лежит в неизменяемом сегменте на диске,
+ * свежие изменения - в памяти и в журнале. compact сливает их в новый сегмент.</li>
+ * </ul>
+ * Слияние пишет новый сегмент из снимка без блокировки индекса; запись и поиск блокируются
+ * только на копирование изменений в снимок и на подмену сегмента.
+ */
+public class InvertedIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Изменения поверх сегмента. терм -> (ID документа -> частота терма в документе)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    // Документы сегмента, замененные или удаленные после его записи.
+    private final Set<Long> overridden = new HashSet<>();
+    // Словарь термов сегмента и памяти для нечеткого поиска. Терм памяти удаляется из словаря вместе
+    // с последним документом; термы сегмента остаются до слияния.
+    private TrigramIndex trigrams;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Одно слияние за раз; запись и поиск эта блокировка не задерживает.
+    private final Object compaction = new Object();
+    private final Path segmentFile;
+    private final WriteAheadLog wal;
+    // Изменения, пришедшие во время слияния; null, если слияния нет.
+    private List<Change> sinceSnapshot;
+    private Segment segment;
+    private long totalLength;
+    private int segmentLiveCount;
+    private long segmentLiveLength;
+
+    public InvertedIndex() {
+        this(null, null, null);
+    }
+
+    private InvertedIndex(Path segmentFile, Segment segment, WriteAheadLog wal) {
+        this.segmentFile = segmentFile;
+        this.wal = wal;
+        setSegment(segment, trigramsOf(segment));
+    }
+
+    /**
+     * Открывает персистентный индекс: отображает сегмент (если он есть) и проигрывает журнал.
+     * Если журнал был не пуст, изменения сразу сливаются в новый сегмент.
+     *
+     * @param segmentFile Файл сегмента.
+     * @param walFile     Файл журнала.
+     */
+    public static InvertedIndex open(Path segmentFile, Path walFile) throws IOException {
+        Segment segment = Files.exists(segmentFile) ? Segment.open(segmentFile) : null;
+        InvertedIndex index = new InvertedIndex(segmentFile, segment, new WriteAheadLog(walFile));
+        index.wal.replay(index);
+        if (!index.documents.isEmpty() || !index.overridden.isEmpty())
+            index.compact();
+        return index;
+    }
+
+    public boolean isPersistent() {
+        return wal != null;
+    }
+
+    /**
+     * Добавление или замена документа.
+     *
+     * @param id        ID документа.
+     * @param text      Индексируемый текст.
+     * @param available Участвует ли документ в выдаче.
+     */
+    public void put(Long id, String text, boolean available) {
+        lock.writeLock().lock();
+        try {
+            if (wal != null)
+                wal.appendPut(id, text, available);
+            putUnlocked(id, text, available);
+            if (sinceSnapshot != null)
+                sinceSnapshot.add(new Change(id, text, available));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (wal != null)
+                wal.appendRemove(id);
+            removeUnlocked(id);
+            if (sinceSnapshot != null)
+                sinceSnapshot.add(new Change(id, null, false));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Применение записи журнала: text == null означает удаление.
+     */
+    void apply(long id, String text, boolean available) {
+        if (text == null)
+            removeUnlocked(id);
+        else
+            putUnlocked(id, text, available);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size() + segmentLiveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Число изменений, накопленных поверх сегмента.
+     */
+    public int pendingSize() {
+        lock.readLock().lock();
+        try {
+            return documents.size() + overridden.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Число термов в словаре нечеткого поиска.
+     */
+    int fuzzyTermCount() {
+        lock.readLock().lock();
+        try {
+            return trigrams.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        return search(query, false);
+    }
+
+    /**
+     * @param query Поисковый запрос.
+     * @param fuzzy Нечеткий режим: кроме термов с префиксом из запроса, подходят термы
+     *              на небольшом расстоянии редактирования от него (опечатки).
+     * @return ID доступных документов по убыванию релевантности, при равенстве - по возрастанию ID.
+     */
+    public List<Long> search(String query, boolean fuzzy) {
+        Set<String> queryTerms = new HashSet<>(TextAnalyzer.analyze(query));
+        if (queryTerms.isEmpty())
+            return List.of();
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size() + segmentLiveCount;
+            double avgLength = docCount == 0 ? 0 : (double) (totalLength + segmentLiveLength) / docCount;
+            Map<Long, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (String term : matchingTerms(queryTerm, fuzzy))
+                    scoreTerm(term, docCount, avgLength, termScores);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Пересечение: остаются документы, содержащие все термы запроса.
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty())
+                    return List.of();
+            }
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())));
+            List<Long> ids = new ArrayList<>(ranked.size());
+            for (Map.Entry<Long, Double> entry : ranked)
+                ids.add(entry.getKey());
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Слияние сегмента и изменений в памяти в новый сегмент.
+     * Под блокировкой изменения копируются в снимок; новый сегмент пишется из снимка без блокировки,
+     * запись и поиск идут по старому. Затем под блокировкой сегмент подменяется, изменения,
+     * пришедшие за время слияния, проигрываются поверх нового сегмента и остаются в журнале.
+     */
+    public void compact() throws IOException {
+        if (wal == null)
+            throw new IllegalStateException("Индекс в памяти не сохраняется на диск.");
+        synchronized (compaction) {
+            Snapshot snapshot;
+            lock.writeLock().lock();
+            try {
+                snapshot = new Snapshot(segment, postings, documents, overridden);
+                sinceSnapshot = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Segment merged;
+            TrigramIndex mergedTrigrams;
+            try {
+                Path tmpFile = segmentFile.resolveSibling(segmentFile.getFileName() + ".tmp");
+                writeSegment(tmpFile, snapshot);
+                Files.move(tmpFile, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                merged = Segment.open(segmentFile);
+                mergedTrigrams = trigramsOf(merged);
+            } catch (IOException | RuntimeException e) {
+                // Индекс остается на старом сегменте; журнал по-прежнему содержит все изменения.
+                lock.writeLock().lock();
+                try {
+                    sinceSnapshot = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                documents.clear();
+                overridden.clear();
+                totalLength = 0;
+                setSegment(merged, mergedTrigrams);
+                for (Change change : sinceSnapshot)
+                    apply(change.id, change.text, change.available);
+                // В новом журнале остаются только изменения, которых нет в новом сегменте.
+                wal.reset(sinceSnapshot);
+            } finally {
+                sinceSnapshot = null;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Set<String> matchingTerms(String queryTerm, boolean fuzzy) {
+        Set<String> terms = new HashSet<>(postings
+                .subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).keySet());
+        if (segment != null) {
+            int[] range = segment.prefixRange(queryTerm);
+            for (int t = range[0]; t < range[1]; t++)
+                terms.add(segment.term(t));
+        }
+        if (fuzzy)
+            terms.addAll(trigrams.similar(queryTerm));
+        return terms;
+    }
+
+    private void scoreTerm(String term, int docCount, double avgLength, Map<Long, Double> termScores) {
+        Map<Long, Integer> memoryDocs = postings.getOrDefault(term, Map.of());
+        int segmentTerm = segment != null ? segment.findTerm(term) : -1;
+        int segmentDf = segmentTerm >= 0 ? segment.docFreq(segmentTerm) : 0;
+        double idf = idf(docCount, memoryDocs.size() + segmentDf);
+        memoryDocs.forEach((id, tf) -> {
+            Document document = documents.get(id);
+            if (document.available)
+                termScores.merge(id, bm25(idf, tf, document.length, avgLength), Double::sum);
+        });
+        for (int i = 0; i < segmentDf; i++) {
+            int ord = segment.postingDoc(segmentTerm, i);
+            long id = segment.docId(ord);
+            if (!segment.isAvailable(ord) || overridden.contains(id))
+                continue;
+            termScores.merge(id, bm25(idf, segment.postingFreq(segmentTerm, i), segment.docLength(ord), avgLength),
+                    Double::sum);
+        }
+    }
+
+    private static double idf(int docCount, int df) {
+        return Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+    }
+
+    private static double bm25(double idf, int tf, int length, double avgLength) {
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+    }
+
+    private void putUnlocked(Long id, String text, boolean available) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> terms = TextAnalyzer.analyze(text);
+        for (String term : terms)
+            frequencies.merge(term, 1, Integer::sum);
+        removeUnlocked(id);
+        documents.put(id, new Document(frequencies.keySet(), terms.size(), available));
+        totalLength += terms.size();
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> {
+            trigrams.add(t);
+            return new HashMap<>();
+        }).put(id, tf));
+    }
+
+    private void removeUnlocked(Long id) {
+        if (segment != null && !overridden.contains(id)) {
+            int ord = segment.findDoc(id);
+            if (ord >= 0) {
+                overridden.add(id);
+                segmentLiveCount--;
+                segmentLiveLength -= segment.docLength(ord);
+            }
+        }
+        Document document = documents.remove(id);
+        if (document == null)
+            return;
+        totalLength -= document.length;
+        for (String term : document.terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                if (segment == null || segment.findTerm(term) < 0)
+                    trigrams.remove(term);
+            }
+        }
+    }
+
+    private void setSegment(Segment segment, TrigramIndex segmentTrigrams) {
+        this.segment = segment;
+        this.trigrams = segmentTrigrams;
+        segmentLiveCount = segment != null ? segment.docCount() : 0;
+        segmentLiveLength = segment != null ? segment.totalLength() : 0;
+    }
+
+    private static TrigramIndex trigramsOf(Segment segment) {
+        TrigramIndex trigrams = new TrigramIndex();
+        for (int t = 0; segment != null && t < segment.termCount(); t++)
+            trigrams.add(segment.term(t));
+        return trigrams;
+    }
+
+    /**
+     * Запись живых документов сегмента и документов из памяти в новый файл сегмента (формат - см. Segment).
+     */
+    private static void writeSegment(Path file, Snapshot snapshot) throws IOException {
+        Segment segment = snapshot.segment;
+        Map<String, Map<Long, Integer>> postings = snapshot.postings;
+        Map<Long, Document> documents = snapshot.documents;
+        Set<Long> overridden = snapshot.overridden;
+        // Новые порядковые номера: объединение отсортированных ID сегмента и памяти.
+        long[] memoryIds = documents.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] segmentOrds = new int[segment != null ? segment.docCount() : 0];
+        Map<Long, Integer> memoryOrds = new HashMap<>();
+        List<long[]> docValues = new ArrayList<>(segmentOrds.length + memoryIds.length);
+        long length = 0;
+        int s = 0;
+        int m = 0;
+        while (s < segmentOrds.length || m < memoryIds.length) {
+            long segmentId = s < segmentOrds.length ? segment.docId(s) : Long.MAX_VALUE;
+            if (s < segmentOrds.length && overridden.contains(segmentId)) {
+                segmentOrds[s++] = -1;
+            } else if (m >= memoryIds.length || segmentId < memoryIds[m]) {
+                segmentOrds[s] = docValues.size();
+                docValues.add(new long[]{segmentId, segment.docLength(s), segment.isAvailable(s) ? 1 : 0});
+                length += segment.docLength(s++);
+            } else {
+                Document document = documents.get(memoryIds[m]);
+                memoryOrds.put(memoryIds[m], docValues.size());
+                docValues.add(new long[]{memoryIds[m++], document.length, document.available ? 1 : 0});
+                length += document.length;
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(Segment.MAGIC);
+            out.writeInt(Segment.VERSION);
+            out.writeInt(docValues.size());
+            out.writeLong(length);
+            for (long[] doc : docValues) {
+                out.writeLong(doc[0]);
+                out.writeInt((int) doc[1]);
+                out.writeByte((int) doc[2]);
+            }
+
+            // Постинги по объединенному отсортированному словарю.
+            Set<String> termSet = new HashSet<>(postings.keySet());
+            for (int t = 0; segment != null && t < segment.termCount(); t++)
+                termSet.add(segment.term(t));
+            String[] allTerms = termSet.toArray(new String[0]);
+            Arrays.sort(allTerms);
+            List<String> terms = new ArrayList<>(allTerms.length);
+            List<int[]> termInfo = new ArrayList<>(allTerms.length);
+            long offset = Segment.HEADER_SIZE + (long) docValues.size() * Segment.DOC_SIZE;
+            for (String term : allTerms) {
+                int count = 0;
+                int t = segment != null ? segment.findTerm(term) : -1;
+                for (int i = 0; t >= 0 && i < segment.docFreq(t); i++) {
+                    int ord = segmentOrds[segment.postingDoc(t, i)];
+                    if (ord < 0)
+                        continue;
+                    out.writeInt(ord);
+                    out.writeInt(segment.postingFreq(t, i));
+                    count++;
+                }
+                for (Map.Entry<Long, Integer> posting : postings.getOrDefault(term, Map.of()).entrySet()) {
+                    out.writeInt(memoryOrds.get(posting.getKey()));
+                    out.writeInt(posting.getValue());
+                    count++;
+                }
+                if (count > 0) {
+                    terms.add(term);
+                    termInfo.add(new int[]{count});
+                }
+                offset += (long) count * Segment.POSTING_SIZE;
+            }
+
+            long dictionaryOffset = offset;
+            long postingOffset = Segment.HEADER_SIZE + (long) docValues.size() * Segment.DOC_SIZE;
+            out.writeInt(terms.size());
+            for (int t = 0; t < terms.size(); t++) {
+                byte[] bytes = terms.get(t).getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+                out.writeInt(termInfo.get(t)[0]);
+                out.writeLong(postingOffset);
+                postingOffset += (long) termInfo.get(t)[0] * Segment.POSTING_SIZE;
+            }
+            out.writeLong(dictionaryOffset);
+        }
+    }
+
+    /**
+     * Сегмент и копия изменений в памяти на момент начала слияния.
+     */
+    private static class Snapshot {
+        private final Segment segment;
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, Document> documents;
+        private final Set<Long> overridden;
+
+        Snapshot(Segment segment, Map<String, Map<Long, Integer>> postings, Map<Long, Document> documents,
+                 Set<Long> overridden) {
+            this.segment = segment;
+            postings.forEach((term, docs) -> this.postings.put(term, new HashMap<>(docs)));
+            this.documents = new HashMap<>(documents);
+            this.overridden = new HashSet<>(overridden);
+        }
+    }
+
+    /**
+     * Изменение индекса: text == null означает удаление.
+     */
+    static class Change {
+        final long id;
+        final String text;
+        final boolean available;
+
+        Change(long id, String text, boolean available) {
+            this.id = id;
+            this.text = text;
+            this.available = available;
+        }
+    }
+
+    private static class Document {
+        private final Set<String> terms;
+        private final int length;
+        private final boolean available;
+
+        Document(Set<String> terms, int length, boolean available) {
+            this.terms = terms;
+            this.length = length;
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostUpdate;
+
+/**
+ * Слушатель сущности Item: передает поисковому движку и подсказкам каждую сохраненную вещь,
+ * чтобы индексы обновлялись сразу, а не при перестроении.
+ * Колбэки JPA срабатывают при flush, до фиксации транзакции, поэтому вещь передается в индексы
+ * только после фиксации: при откате в индексе, журнале и подсказках не остается несохраненного текста.
+ * Создается Hibernate через контейнер бинов Spring. Зависимости внедряются лениво,
+ * так как сами зависят от репозитория, а значит, и от EntityManagerFactory.
+ */
+public class ItemIndexListener {
+    private final ItemSearchEngine searchEngine;
+    private final ItemNameSuggester nameSuggester;
+
+    public ItemIndexListener(@Lazy ItemSearchEngine searchEngine, @Lazy ItemNameSuggester nameSuggester) {
+        this.searchEngine = searchEngine;
+        this.nameSuggester = nameSuggester;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Item item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index(item);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index(item);
+            }
+        });
+    }
+
+    private void index(Item item) {
+        searchEngine.onSaved(item);
+        nameSuggester.onSaved(item);
+    }
+}
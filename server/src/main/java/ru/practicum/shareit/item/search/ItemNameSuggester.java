@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Подсказки названий доступных вещей по префиксу.
+ * Вес названия - число доступных вещей с ним. Дерево строится из таблицы items при первой подсказке
+ * и обновляется при каждом сохранении вещи (см. ItemIndexListener) и удалении вещей вместе с владельцем.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemNameSuggester {
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final NameTrie trie = new NameTrie();
+    // Названия доступных вещей, учтенные в дереве.
+    private final Map<Long, String> names = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean isLoaded;
+
+    public List<String> suggest(String prefix, int size) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix, Math.min(size, NameTrie.TOP_K));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void onSaved(Item item) {
+        lock.writeLock().lock();
+        try {
+            String previous = item.getAvailable()
+                    ? names.put(item.getId(), item.getName())
+                    : names.remove(item.getId());
+            if (previous != null)
+                trie.add(previous, -1);
+            if (item.getAvailable())
+                trie.add(item.getName(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Убирает из подсказок вещи, удаленные каскадно вместе с владельцем.
+     * Ждет окончания загрузки дерева, чтобы загрузка не вернула уже удаленные названия.
+     */
+    public synchronized void onRemoved(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : itemIds) {
+                String previous = names.remove(itemId);
+                if (previous != null)
+                    trie.add(previous, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (isLoaded)
+            return;
+        synchronized (this) {
+            if (!isLoaded) {
+                itemRepository.forEachBatch(LOAD_BATCH_SIZE, batch -> batch.forEach(this::onSaved));
+                isLoaded = true;
+            }
+        }
+    }
+}
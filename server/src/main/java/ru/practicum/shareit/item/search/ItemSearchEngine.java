@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту в названии и описании.
+ * Реализация выбирается свойством shareit.search.engine: index (по умолчанию) или db.
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * @param text    Поисковый запрос, не пустой.
+     * @param fuzzy   Нечеткий поиск с допуском опечаток. Движок может его не поддерживать.
+     * @param window  Интервал, в который вещь должна быть свободна от подтвержденных броней, или null.
+     * @param afterId ID последней вещи предыдущей страницы (постраничная выдача по курсору) или null.
+     * @param from    Смещение первой записи, если курсор не передан.
+     * @param size    Размер страницы.
+     * @return Страница доступных вещей в порядке выдачи.
+     */
+    List<Item> search(String text, boolean fuzzy, AvailabilityWindow window, Long afterId, Long from, Integer size);
+
+    /**
+     * Уведомление о сохранении вещи: новой или измененной. Приходит после фиксации транзакции.
+     */
+    default void onSaved(Item item) {
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Префиксное дерево названий с весами (число доступных вещей с таким названием).
+ * В каждом узле хранится готовый топ-K названий поддерева, поэтому подсказка по префиксу
+ * стоит O(длина префикса) и не обходит поддерево. При изменении веса обновляются только топы
+ * на пути от измененного узла к корню: при росте веса - вставкой, при уменьшении - из топов детей.
+ * Названия сравниваются без учета регистра и различия е/ё. Класс не потокобезопасен.
+ */
+public class NameTrie {
+    public static final int TOP_K = 10;
+    private static final Comparator<Node> BY_WEIGHT = Comparator.<Node>comparingInt(node -> node.weight).reversed()
+            .thenComparing(node -> node.name);
+
+    private final Node root = new Node(null, '\0');
+
+    /**
+     * Изменение веса названия. Название с нулевым весом из подсказок пропадает.
+     *
+     * @param name  Название в исходном написании.
+     * @param delta Изменение веса.
+     */
+    public void add(String name, int delta) {
+        String key = normalize(name);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            Node parent = node;
+            node = node.children.computeIfAbsent(c, ch -> new Node(parent, ch));
+        }
+        node.weight = Math.max(0, node.weight + delta);
+        node.name = node.weight > 0 ? name : null;
+        if (delta > 0)
+            promote(node);
+        else
+            recollect(node);
+    }
+
+    /**
+     * @return До limit (не больше TOP_K) названий с префиксом prefix по убыванию веса.
+     */
+    public List<String> top(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++)
+            node = node.children.get(key.charAt(i));
+        List<String> names = new ArrayList<>();
+        if (node == null)
+            return names;
+        for (Node entry : node.top) {
+            if (names.size() >= limit)
+                break;
+            names.add(entry.name);
+        }
+        return names;
+    }
+
+    /**
+     * Вес вырос: узел поднимается в топах предков. Если в топ предка он не попал,
+     * то в топы предков выше не попадет тем более.
+     */
+    private static void promote(Node terminal) {
+        for (Node node = terminal; node != null; node = node.parent) {
+            List<Node> top = new ArrayList<>(node.top);
+            if (!top.contains(terminal)) {
+                if (top.size() >= TOP_K && BY_WEIGHT.compare(terminal, top.get(top.size() - 1)) >= 0)
+                    return;
+                if (top.size() >= TOP_K)
+                    top.remove(top.size() - 1);
+                top.add(terminal);
+            }
+            top.sort(BY_WEIGHT);
+            node.top = top;
+        }
+    }
+
+    /**
+     * Вес уменьшился: топы на пути к корню пересобираются из топов детей, пустые узлы удаляются.
+     */
+    private void recollect(Node terminal) {
+        for (Node node = terminal; node != null; node = node.parent) {
+            if (node != root && node.weight == 0 && node.children.isEmpty()) {
+                node.parent.children.remove(node.key);
+                continue;
+            }
+            node.top = collectTop(node);
+        }
+    }
+
+    private static List<Node> collectTop(Node node) {
+        List<Node> candidates = new ArrayList<>();
+        if (node.weight > 0)
+            candidates.add(node);
+        for (Node child : node.children.values())
+            candidates.addAll(child.top);
+        candidates.sort(BY_WEIGHT);
+        return candidates.size() > TOP_K ? new ArrayList<>(candidates.subList(0, TOP_K)) : candidates;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private static class Node {
+        private final Node parent;
+        private final char key;
+        private final Map<Character, Node> children = new HashMap<>();
+        private String name;
+        private int weight;
+        private List<Node> top = List.of();
+
+        Node(Node parent, char key) {
+            this.parent = parent;
+            this.key = key;
+        }
+    }
+}
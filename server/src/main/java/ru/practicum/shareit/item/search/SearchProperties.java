@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки поиска вещей (shareit.search.*).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.search")
+public class SearchProperties {
+    /**
+     * Движок поиска: index - инвертированный индекс, db - запрос like в базу.
+     */
+    private String engine = "index";
+    /**
+     * Каталог для сегментов индекса и журнала. Если не задан, индекс живет только в памяти
+     * и строится из базы после каждого старта.
+     */
+    private String indexDir;
+    /**
+     * Число изменений поверх сегмента, после которого запускается фоновое слияние в новый сегмент.
+     */
+    private int mergeThreshold = 10_000;
+}
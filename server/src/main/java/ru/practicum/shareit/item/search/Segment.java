@@ -0,0 +1,149 @@
+package ru.practicum.shareit.item.search;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Неизменяемый сегмент поискового индекса на диске, отображенный в память (mmap).
+ * В куче держится только словарь термов; постинги и doc values читаются прямо из файла,
+ * поэтому память под них выделяет ОС из page cache.
+ * <p>
+ * Формат файла (big-endian):
+ * <pre>
+ * заголовок:   int MAGIC, int VERSION, int docCount, long totalLength
+ * doc values:  docCount x (long id, int length, byte available), по возрастанию id
+ * постинги:    для каждого терма df x (int порядковый номер документа, int tf)
+ * словарь:     int termCount, termCount x (short длина, utf-8 байты терма, int df, long смещение постингов)
+ * хвост:       long смещение словаря
+ * </pre>
+ * Размер файла ограничен 2 ГБ (адресация MappedByteBuffer).
+ */
+public final class Segment {
+    static final int MAGIC = 0x53485349;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    static final int DOC_SIZE = 13;
+    static final int POSTING_SIZE = 8;
+
+    private final MappedByteBuffer buffer;
+    private final int docCount;
+    private final long totalLength;
+    private final String[] terms;
+    private final int[] docFreqs;
+    private final int[] postingOffsets;
+
+    private Segment(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException("Неизвестный формат сегмента поискового индекса.");
+        docCount = buffer.getInt(8);
+        totalLength = buffer.getLong(12);
+        int position = Math.toIntExact(buffer.getLong(buffer.capacity() - Long.BYTES));
+        int termCount = buffer.getInt(position);
+        position += Integer.BYTES;
+        terms = new String[termCount];
+        docFreqs = new int[termCount];
+        postingOffsets = new int[termCount];
+        for (int t = 0; t < termCount; t++) {
+            byte[] bytes = new byte[buffer.getShort(position)];
+            position += Short.BYTES;
+            buffer.duplicate().position(position).get(bytes);
+            position += bytes.length;
+            terms[t] = new String(bytes, StandardCharsets.UTF_8);
+            docFreqs[t] = buffer.getInt(position);
+            postingOffsets[t] = Math.toIntExact(buffer.getLong(position + Integer.BYTES));
+            position += Integer.BYTES + Long.BYTES;
+        }
+    }
+
+    public static Segment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Segment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int docCount() {
+        return docCount;
+    }
+
+    public long totalLength() {
+        return totalLength;
+    }
+
+    public long docId(int ord) {
+        return buffer.getLong(HEADER_SIZE + ord * DOC_SIZE);
+    }
+
+    public int docLength(int ord) {
+        return buffer.getInt(HEADER_SIZE + ord * DOC_SIZE + Long.BYTES);
+    }
+
+    public boolean isAvailable(int ord) {
+        return buffer.get(HEADER_SIZE + ord * DOC_SIZE + Long.BYTES + Integer.BYTES) != 0;
+    }
+
+    /**
+     * @return Порядковый номер документа с этим ID или -1.
+     */
+    public int findDoc(long id) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = docId(mid);
+            if (midId < id)
+                low = mid + 1;
+            else if (midId > id)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    public String term(int t) {
+        return terms[t];
+    }
+
+    public int docFreq(int t) {
+        return docFreqs[t];
+    }
+
+    /**
+     * @return Номер терма или -1.
+     */
+    public int findTerm(String term) {
+        int t = Arrays.binarySearch(terms, term);
+        return t >= 0 ? t : -1;
+    }
+
+    /**
+     * @return Полуинтервал [from, to) номеров термов, начинающихся с prefix.
+     */
+    public int[] prefixRange(String prefix) {
+        int from = Arrays.binarySearch(terms, prefix);
+        if (from < 0)
+            from = -from - 1;
+        int to = Arrays.binarySearch(terms, prefix + Character.MAX_VALUE);
+        if (to < 0)
+            to = -to - 1;
+        return new int[]{from, to};
+    }
+
+    public int postingDoc(int t, int i) {
+        return buffer.getInt(postingOffsets[t] + i * POSTING_SIZE);
+    }
+
+    public int postingFreq(int t, int i) {
+        return buffer.getInt(postingOffsets[t] + i * POSTING_SIZE + Integer.BYTES);
+    }
+}
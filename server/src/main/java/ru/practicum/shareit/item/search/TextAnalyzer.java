@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Разбор текста на термы: нижний регистр, ё -> е, слова из букв и цифр,
+ * облегченный стемминг русских и английских окончаний.
+ * Стемминг намеренно грубый: ищем по префиксу основы, поэтому недорезанное окончание не страшно.
+ */
+public final class TextAnalyzer {
+    private static final int MIN_STEM = 3;
+    // Отсортированы по убыванию длины: отрезается самое длинное подходящее окончание.
+    private static final String[] RU_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ей", "ую", "юю",
+            "ом", "ем", "ам", "ям", "ах", "ях", "ов", "ев", "ия", "ью",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"
+    };
+    private static final String[] EN_ENDINGS = {"ing", "ies", "es", "ed", "ly", "s"};
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null)
+            return terms;
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean isWordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                terms.add(stem(normalized.substring(start, i)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        boolean isCyrillic = Character.UnicodeBlock.of(word.charAt(word.length() - 1))
+                == Character.UnicodeBlock.CYRILLIC;
+        for (String ending : isCyrillic ? RU_ENDINGS : EN_ENDINGS) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM) {
+                String stem = word.substring(0, word.length() - ending.length());
+                return ending.equals("ies") ? stem + "y" : stem;
+            }
+        }
+        return word;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Триграммный индекс словаря термов для нечеткого поиска.
+ * Термы разложены по длине: на расстоянии редактирования d от запроса могут быть только термы,
+ * длина которых отличается не больше чем на d, и остальные длины не просматриваются.
+ * Среди них кандидаты отбираются по числу общих триграмм: одна правка (включая перестановку
+ * соседних букв) меняет не больше 4 триграмм, поэтому у терма на расстоянии d с запросом
+ * не меньше max(|G(запрос)|, |G(терм)|) - 4 * d общих триграмм. Прошедшие порог кандидаты
+ * проверяются ограниченным расчетом расстояния, который прерывается, как только строка матрицы
+ * целиком превышает допуск.
+ */
+public class TrigramIndex {
+    private static final char PAD = '$';
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int GRAMS_PER_EDIT = 4;
+
+    // длина терма -> триграмма -> термы
+    private final Map<Integer, Map<String, Set<String>>> termsByLength = new HashMap<>();
+    private int size;
+
+    public void add(String term) {
+        Map<String, Set<String>> termsByGram = termsByLength.computeIfAbsent(term.length(), l -> new HashMap<>());
+        boolean isNew = false;
+        for (String gram : grams(term))
+            isNew |= termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+        if (isNew)
+            size++;
+    }
+
+    /**
+     * Удаляет терм из словаря; триграммы, на которые не осталось термов, удаляются тоже.
+     */
+    public void remove(String term) {
+        Map<String, Set<String>> termsByGram = termsByLength.get(term.length());
+        if (termsByGram == null)
+            return;
+        boolean isRemoved = false;
+        for (String gram : grams(term)) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms == null || !terms.remove(term))
+                continue;
+            isRemoved = true;
+            if (terms.isEmpty())
+                termsByGram.remove(gram);
+        }
+        if (isRemoved)
+            size--;
+        if (termsByGram.isEmpty())
+            termsByLength.remove(term.length());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        termsByLength.clear();
+        size = 0;
+    }
+
+    /**
+     * @return Термы словаря на расстоянии не больше maxEdits(term) от term, включая сам term.
+     * Для коротких термов (меньше 3 символов) нечеткий поиск не выполняется.
+     */
+    public Set<String> similar(String term) {
+        Set<String> result = new HashSet<>();
+        if (term.length() < MIN_FUZZY_LENGTH)
+            return result;
+        int maxEdits = maxEdits(term);
+        Set<String> queryGrams = grams(term);
+        int lost = GRAMS_PER_EDIT * maxEdits;
+        for (int length = term.length() - maxEdits; length <= term.length() + maxEdits; length++) {
+            Map<String, Set<String>> termsByGram = termsByLength.get(length);
+            if (termsByGram == null)
+                continue;
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : queryGrams) {
+                for (String candidate : termsByGram.getOrDefault(gram, Set.of()))
+                    shared.merge(candidate, 1, Integer::sum);
+            }
+            // У терма длины length не больше length + 1 различных триграмм: если порог пройден и с этим
+            // числом, точное число триграмм кандидата можно не считать.
+            int maxCandidateGrams = length + 1;
+            shared.forEach((candidate, count) -> {
+                if (count < queryGrams.size() - lost)
+                    return;
+                if (count < maxCandidateGrams - lost && count < grams(candidate).size() - lost)
+                    return;
+                if (withinDistance(term, candidate, maxEdits))
+                    result.add(candidate);
+            });
+        }
+        return result;
+    }
+
+    static int maxEdits(String term) {
+        return term.length() <= 4 ? 1 : 2;
+    }
+
+    /**
+     * Расстояние Дамерау-Левенштейна (перестановка соседних букв - одна правка) не больше max.
+     */
+    static boolean withinDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max)
+            return false;
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++)
+            previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1))
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max)
+                return false;
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max;
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = PAD + term + PAD;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++)
+            grams.add(padded.substring(i, i + 3));
+        return grams;
+    }
+}
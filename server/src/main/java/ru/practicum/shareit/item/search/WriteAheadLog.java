@@ -0,0 +1,171 @@
+package ru.practicum.shareit.item.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Журнал изменений индекса, сделанных после записи последнего сегмента.
+ * Каждая запись - операция put (id, available, текст) или remove (id). При старте журнал
+ * проигрывается поверх сегмента; после слияния в новый сегмент в журнале остаются только
+ * изменения, которых в сегменте нет. Каждая запись сбрасывается на диск (fsync) до возврата.
+ * <p>
+ * Оборванная последняя запись (падение во время записи) при проигрывании отбрасывается, и журнал
+ * обрезается до последней целой записи, чтобы новые записи не оказались за мусором.
+ * Неизвестный код операции означает поврежденный журнал: проигрывание прерывается ошибкой.
+ */
+public class WriteAheadLog implements AutoCloseable {
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final Path file;
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+
+    public WriteAheadLog(Path file) throws IOException {
+        this.file = file;
+        openForAppend();
+    }
+
+    /**
+     * Проигрывает журнал в индекс без повторной записи в журнал.
+     */
+    public void replay(InvertedIndex index) throws IOException {
+        if (Files.size(file) == 0)
+            return;
+        long complete = 0;
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        try (DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                byte op = in.readByte();
+                long id = in.readLong();
+                if (op == PUT) {
+                    boolean available = in.readBoolean();
+                    index.apply(id, in.readUTF(), available);
+                } else if (op == REMOVE) {
+                    index.apply(id, null, false);
+                } else {
+                    throw new IOException(String.format(
+                            "Журнал поискового индекса %s поврежден: неизвестная операция %d на смещении %d.",
+                            file, op, complete));
+                }
+                complete = counter.count;
+            }
+        } catch (EOFException e) {
+            // Конец журнала или оборванная запись.
+        }
+        if (complete < Files.size(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+                channel.force(true);
+            }
+        }
+    }
+
+    public void appendPut(Long id, String text, boolean available) {
+        append(id, text, available);
+    }
+
+    public void appendRemove(Long id) {
+        append(id, null, false);
+    }
+
+    /**
+     * Замена журнала изменениями, которых нет в новом сегменте. Новый журнал пишется рядом
+     * и атомарно подменяет старый: после падения на диске остается один из двух целиком.
+     * Проигрывание старого журнала поверх нового сегмента дает то же состояние.
+     */
+    void reset(List<InvertedIndex.Change> pending) throws IOException {
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream tmp = new FileOutputStream(tmpFile.toFile())) {
+            DataOutputStream tmpOut = new DataOutputStream(new BufferedOutputStream(tmp));
+            for (InvertedIndex.Change change : pending)
+                write(tmpOut, change.id, change.text, change.available);
+            tmpOut.flush();
+            tmp.getFD().sync();
+        }
+        out.close();
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openForAppend();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void append(long id, String text, boolean available) {
+        try {
+            write(out, id, text, available);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // text == null - удаление.
+    private static void write(DataOutputStream out, long id, String text, boolean available) throws IOException {
+        if (text == null) {
+            out.writeByte(REMOVE);
+            out.writeLong(id);
+        } else {
+            out.writeByte(PUT);
+            out.writeLong(id);
+            out.writeBoolean(available);
+            out.writeUTF(text);
+        }
+    }
+
+    private void openForAppend() throws IOException {
+        fileOut = new FileOutputStream(file.toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut));
+    }
+
+    /**
+     * Считает байты, прочитанные из журнала: по ним находится конец последней целой записи.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0)
+                count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.util.List;
 
@@ -39,13 +41,15 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getMadeByOther(
+    public ResponseEntity<List<ItemRequestDto>> getMadeByOther(
             @RequestHeader(HEADER_ID) Long requesterId,
             @RequestParam(name = "from", defaultValue = "0") Long from,
-            @RequestParam(name = "size", defaultValue = "10") Integer size) {
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Сервер принял запрос \"Получить запросы других пользователей\". " +
-                "requesterId={}; from={}; size={}", requesterId, from, size);
-        return itemRequestService.getMadeByOther(requesterId, from, size);
+                "requesterId={}; from={}; size={}; cursor={}", requesterId, from, size, cursor);
+        List<ItemRequestDto> requests = itemRequestService.getMadeByOther(requesterId, from, size, cursor);
+        return PageCursor.withNext(requests, size, request -> PageCursor.encode(request.getId()));
     }
 
     @GetMapping("/{requestId}")
@@ -1,12 +1,29 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    // План загрузки для выдачи запросов: запрос вместе с автором одним запросом.
+    String WITH_REQUESTER = "ItemRequest.withRequester";
+
+    @EntityGraph(WITH_REQUESTER)
     List<ItemRequest> findByRequester_Id(Long requesterId);
 
+    @EntityGraph(WITH_REQUESTER)
     List<ItemRequest> findByRequester_IdNot(Long requesterId, Pageable pageable);
+
+    @EntityGraph(WITH_REQUESTER)
+    List<ItemRequest> findByRequester_IdNotAndIdLessThan(Long requesterId, Long id, Pageable pageable);
+
+    /**
+     * Запрос с автором для выдачи. В отличие от findById, идет в базу, а не в кэш второго уровня:
+     * из кэша автор пришел бы незагруженной ссылкой.
+     */
+    @EntityGraph(WITH_REQUESTER)
+    Optional<ItemRequest> findWithRequesterById(Long id);
 }
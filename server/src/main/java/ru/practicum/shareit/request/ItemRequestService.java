@@ -10,7 +10,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getByRequester(Long requesterId);
 
-    List<ItemRequestDto> getMadeByOther(Long requesterId, Long from, Integer size);
+    List<ItemRequestDto> getMadeByOther(Long requesterId, Long from, Integer size, String cursor);
 
     ItemRequestDto getById(Long requesterId, Long requestId);
 }
@@ -2,64 +2,97 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.ValidationNotFoundException;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemViewForRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.KnownUserCache;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final Sort NEWEST_FIRST = Sort.by("id").descending();
+
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final KnownUserCache knownUsers;
     private final ItemRequestMapper itemRequestMapper;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
 
     @Override
     public ItemRequestDto add(Long requesterId, ItemRequestDto itemRequestDto) {
         User requester = userRepository.findById(requesterId)
                 .orElseThrow(() -> new ValidationNotFoundException(String
                         .format("Пользователь userID=%s не найден.", requesterId)));
+        knownUsers.remember(requester.getId());
         itemRequestDto.setRequester(requester);
         itemRequestDto.setCreated(LocalDateTime.now());
         ItemRequest itemRequest = itemRequestMapper.toItemRequest(itemRequestDto);
         itemRequest = itemRequestRepository.save(itemRequest);
-        return itemRequestMapper.toItemRequestDto(itemRequest, false);
+        return itemRequestMapper.toItemRequestDto(itemRequest, null);
     }
 
     @Override
     public List<ItemRequestDto> getByRequester(Long requesterId) {
-        if (!userRepository.existsById(requesterId))
+        if (!knownUsers.exists(requesterId))
             throw new ValidationNotFoundException(String.format("Пользователь userID=%s не найден.", requesterId));
-        return itemRequestRepository.findByRequester_Id(requesterId)
-                .stream()
-                .map(itemRequest -> itemRequestMapper.toItemRequestDto(itemRequest, true))
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequestRepository.findByRequester_Id(requesterId));
     }
 
     @Override
-    public List<ItemRequestDto> getMadeByOther(Long requesterId, Long from, Integer size) {
-        if (!userRepository.existsById(requesterId))
+    public List<ItemRequestDto> getMadeByOther(Long requesterId, Long from, Integer size, String cursor) {
+        if (!knownUsers.exists(requesterId))
             throw new ValidationNotFoundException(String.format("Пользователь userID=%s не найден.", requesterId));
-        int page = Math.toIntExact(from / size);
-        Pageable pageable = PageRequest.of(page, size);
-        return itemRequestRepository.findByRequester_IdNot(requesterId, pageable).stream()
-                .map(itemRequest -> itemRequestMapper.toItemRequestDto(itemRequest, true))
-                .collect(Collectors.toList());
+        List<ItemRequest> requests;
+        if (cursor != null) {
+            Long beforeId = PageCursor.decode(cursor, false).getId();
+            requests = itemRequestRepository.findByRequester_IdNotAndIdLessThan(
+                    requesterId, beforeId, PageRequest.of(0, size, NEWEST_FIRST));
+        } else {
+            int page = Math.toIntExact(from / size);
+            requests = itemRequestRepository.findByRequester_IdNot(
+                    requesterId, PageRequest.of(page, size, NEWEST_FIRST));
+        }
+        return toItemRequestDtos(requests);
     }
 
     @Override
     public ItemRequestDto getById(Long requesterId, Long requestId) {
-        if (!userRepository.existsById(requesterId))
+        if (!knownUsers.exists(requesterId))
             throw new ValidationNotFoundException(String.format("Пользователь userID=%s не найден.", requesterId));
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+        ItemRequest itemRequest = itemRequestRepository.findWithRequesterById(requestId)
                 .orElseThrow(() -> new ValidationNotFoundException(String
                         .format("Запрос requestId=%s не найден.", requestId)));
-        return itemRequestMapper.toItemRequestDto(itemRequest, true);
+        return toItemRequestDtos(List.of(itemRequest)).get(0);
+    }
+
+    /**
+     * Маппинг запросов вместе с ответами на них. Ответы на все запросы выдачи загружаются одним запросом.
+     */
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) return Collections.emptyList();
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemViewForRequestDto>> itemsByRequest = itemRepository.findByRequest_IdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(itemMapper::toItemViewForRequestDto, Collectors.toList())));
+        return requests.stream()
+                .map(itemRequest -> itemRequestMapper.toItemRequestDto(itemRequest,
+                        itemsByRequest.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 }
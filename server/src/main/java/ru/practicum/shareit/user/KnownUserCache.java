@@ -0,0 +1,84 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.ConcurrentLongSet;
+
+/**
+ * Кэш проверки существования пользователя по ID из заголовка X-Sharer-User-Id.
+ * Существующие ID запоминаются при создании, чтении и успешной проверке и забываются при удалении
+ * пользователя, поэтому повторная проверка того же пользователя не обращается к базе.
+ * Несуществующие ID запоминаются на negativeTtl, если включен отрицательный кэш.
+ */
+@Component
+public class KnownUserCache {
+    private static final int STRIPES = 64;
+
+    private final UserLookup userLookup;
+    private final ConcurrentLongSet known;
+    private final ConcurrentLongSet unknown;
+    private final long negativeTtlNanos;
+    private volatile long unknownClearedAt = System.nanoTime();
+
+    public KnownUserCache(UserLookup userLookup, UserProperties properties) {
+        this.userLookup = userLookup;
+        this.known = properties.getKnownCacheSize() > 0
+                ? new ConcurrentLongSet(properties.getKnownCacheSize(), STRIPES)
+                : null;
+        this.unknown = properties.isNegativeCache() && known != null
+                ? new ConcurrentLongSet(properties.getKnownCacheSize(), STRIPES)
+                : null;
+        this.negativeTtlNanos = properties.getNegativeTtl().toNanos();
+    }
+
+    /**
+     * Замена userRepository.existsById: в базу идет только ID, которого нет в кэше.
+     */
+    public boolean exists(Long userId) {
+        if (userId == null)
+            return false;
+        if (known == null)
+            return userLookup.existsById(userId);
+        if (known.contains(userId))
+            return true;
+        if (isUnknown(userId))
+            return false;
+        boolean exists = userLookup.existsById(userId);
+        if (exists)
+            known.add(userId);
+        else if (unknown != null)
+            unknown.add(userId);
+        return exists;
+    }
+
+    /**
+     * Пользователь точно существует: создан или прочитан из базы.
+     */
+    public void remember(Long userId) {
+        if (known == null || userId == null)
+            return;
+        known.add(userId);
+        if (unknown != null)
+            unknown.remove(userId);
+    }
+
+    /**
+     * Пользователь удален.
+     */
+    public void forget(Long userId) {
+        if (known != null && userId != null)
+            known.remove(userId);
+    }
+
+    private boolean isUnknown(long userId) {
+        if (unknown == null)
+            return false;
+        long now = System.nanoTime();
+        if (now - unknownClearedAt > negativeTtlNanos) {
+            // Отрицательные записи сбрасываются все разом: время жизни каждой не дольше negativeTtl.
+            unknownClearedAt = now;
+            unknown.clear();
+            return false;
+        }
+        return unknown.contains(userId);
+    }
+}
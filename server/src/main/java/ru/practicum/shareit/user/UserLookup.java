@@ -0,0 +1,45 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.BatchingProperties;
+import ru.practicum.shareit.util.MicroBatcher;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск пользователей по ID для сервисов. Одновременные проверки существования из разных запросов
+ * объединяются в один запрос "select id ... where id in (...)" (см. MicroBatcher); пакет возвращает
+ * только ID, поэтому между потоками не передаются сущности чужих сессий.
+ * Сам пользователь всегда читается через репозиторий в сессии вызывающего, обычно из кэша второго уровня.
+ * При shareit.batching.enabled=false (по умолчанию) и проверка идет напрямую в репозиторий.
+ */
+@Component
+public class UserLookup {
+    private final UserRepository userRepository;
+    private final boolean isBatching;
+    private final MicroBatcher<Long, Boolean> existing;
+
+    public UserLookup(UserRepository userRepository, BatchingProperties properties) {
+        this.userRepository = userRepository;
+        this.isBatching = properties.isEnabled();
+        this.existing = new MicroBatcher<>(this::loadExisting, properties.getWindow().toNanos(),
+                properties.getMaxBatchSize());
+    }
+
+    public Optional<User> findById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    public boolean existsById(Long id) {
+        return isBatching ? existing.load(id) != null : userRepository.existsById(id);
+    }
+
+    private Map<Long, Boolean> loadExisting(Collection<Long> ids) {
+        return userRepository.findExistingIds(ids).stream()
+                .collect(Collectors.toMap(Function.identity(), id -> true));
+    }
+}
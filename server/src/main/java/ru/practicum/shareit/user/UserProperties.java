@@ -0,0 +1,32 @@
+package ru.practicum.shareit.user;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки пользователей (shareit.users.*).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.users")
+public class UserProperties {
+    /**
+     * Сколько ID существующих пользователей помнить, чтобы не проверять их в базе; 0 - не кэшировать.
+     */
+    private int knownCacheSize = 100_000;
+    /**
+     * Запоминать и несуществующие ID: повторные запросы с неизвестным ID тоже не идут в базу.
+     * Если пользователей создают несколько узлов, новый пользователь может быть не виден другим узлам
+     * до истечения negativeTtl.
+     */
+    private boolean negativeCache = false;
+    /**
+     * Как долго помнить несуществующие ID.
+     */
+    private Duration negativeTtl = Duration.ofSeconds(10);
+}
@@ -1,7 +1,16 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * ID существующих пользователей из набора - проверка существования пакетом.
+     */
+    @Query(" select u.id from User u where u.id in ?1 ")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
@@ -2,8 +2,12 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingTimeSlotIndex;
 import ru.practicum.shareit.exception.ValidationNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.SecondLevelCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -13,10 +17,16 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final BookingTimeSlotIndex timeSlotIndex;
+    private final KnownUserCache knownUsers;
+    private final SecondLevelCache secondLevelCache;
+    private final ItemRepository itemRepository;
+    private final ItemNameSuggester nameSuggester;
 
     public UserDto add(UserDto userDto) {
         User user = userMapper.toUser(userDto);
         user = userRepository.save(user);
+        knownUsers.remember(user.getId());
         return userMapper.toUserDto(user);
     }
 
@@ -32,6 +42,7 @@ public class UserServiceImpl implements UserService {
     public UserDto getById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ValidationNotFoundException(String.format("userId=%s не найден.", id)));
+        knownUsers.remember(user.getId());
         return userMapper.toUserDto(user);
     }
 
@@ -51,7 +62,15 @@ public class UserServiceImpl implements UserService {
     public void remove(Long id) {
         if (!userRepository.existsById(id)) throw new ValidationNotFoundException(String
                 .format("userId=%s не найден.", id));
+        // Вещи удаляются каскадно в базе, без событий сущности, поэтому их ID нужны до удаления.
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id);
         userRepository.deleteById(id);
+        knownUsers.forget(id);
+        // Брони, вещи и запросы пользователя удаляются каскадно, индекс таймслотов нужно перечитать,
+        // вещи и запросы - убрать из кэша второго уровня, а вещи - еще и из подсказок.
+        timeSlotIndex.clear();
+        secondLevelCache.evictUserCascade();
+        nameSuggester.onRemoved(itemIds);
     }
 
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.util;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки объединения одновременных проверок существования по ID в один запрос (shareit.batching.*).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.batching")
+public class BatchingProperties {
+    private boolean enabled = false;
+    /**
+     * Сколько первый поиск ждет попутные, если параллельно идут другие поиски.
+     */
+    private Duration window = Duration.ofNanos(500_000);
+    /**
+     * Пакет такого размера выполняется сразу, не дожидаясь конца окна.
+     */
+    private int maxBatchSize = 100;
+}
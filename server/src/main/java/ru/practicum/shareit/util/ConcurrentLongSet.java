@@ -0,0 +1,143 @@
+package ru.practicum.shareit.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ограниченное потокобезопасное множество положительных long без упаковки в Long.
+ * Значения хранятся в полосах (stripes) с открытой адресацией и линейным пробированием:
+ * 0 - пустая ячейка, -1 - удаленная. Чтение идет без блокировок, запись блокирует только свою полосу.
+ * Размер таблиц фиксирован; когда полоса заполняется, она целиком очищается - множество работает
+ * как кэш, и вытесненные значения просто будут проверены заново.
+ */
+public class ConcurrentLongSet {
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    /**
+     * @param maxSize     Примерный максимум значений.
+     * @param stripeCount Число полос, округляется вверх до степени двойки.
+     */
+    public ConcurrentLongSet(int maxSize, int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[count];
+        this.stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(count);
+        int perStripe = Math.max(1, maxSize / count);
+        for (int i = 0; i < count; i++)
+            stripes[i] = new Stripe(perStripe);
+    }
+
+    public boolean contains(long value) {
+        if (value <= 0)
+            return false;
+        long hash = mix(value);
+        return stripeOf(hash).contains(value, (int) hash);
+    }
+
+    public void add(long value) {
+        if (value <= 0)
+            return;
+        long hash = mix(value);
+        stripeOf(hash).add(value, (int) hash);
+    }
+
+    public void remove(long value) {
+        if (value <= 0)
+            return;
+        long hash = mix(value);
+        stripeOf(hash).remove(value, (int) hash);
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes)
+            stripe.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes)
+            size += stripe.size;
+        return size;
+    }
+
+    private Stripe stripeOf(long hash) {
+        return stripes.length == 1 ? stripes[0] : stripes[(int) (hash >>> stripeShift)];
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static class Stripe {
+        private final int capacity;
+        private final int maxUsed;
+        private volatile AtomicLongArray table;
+        private volatile int size;
+        // Занятые и удаленные ячейки: удаленные тоже удлиняют пробирование.
+        private int used;
+
+        Stripe(int maxSize) {
+            // Заполнение не больше половины - цепочки пробирования остаются короткими.
+            this.capacity = Integer.highestOneBit(Math.max(2, maxSize) - 1) << 2;
+            this.maxUsed = capacity / 2;
+            this.table = new AtomicLongArray(capacity);
+        }
+
+        boolean contains(long value, int hash) {
+            AtomicLongArray current = table;
+            int mask = capacity - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                long slot = current.get(i);
+                if (slot == value)
+                    return true;
+                if (slot == EMPTY)
+                    return false;
+            }
+        }
+
+        synchronized void add(long value, int hash) {
+            if (contains(value, hash))
+                return;
+            if (used >= maxUsed)
+                clear();
+            int mask = capacity - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                long slot = table.get(i);
+                if (slot == EMPTY || slot == REMOVED) {
+                    if (slot == EMPTY)
+                        used++;
+                    table.set(i, value);
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        synchronized void remove(long value, int hash) {
+            int mask = capacity - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                long slot = table.get(i);
+                if (slot == EMPTY)
+                    return;
+                if (slot == value) {
+                    table.set(i, REMOVED);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        synchronized void clear() {
+            table = new AtomicLongArray(capacity);
+            size = 0;
+            used = 0;
+        }
+    }
+}
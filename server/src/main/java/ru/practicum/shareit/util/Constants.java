@@ -2,4 +2,5 @@ package ru.practicum.shareit.util;
 
 public class Constants {
     public static final String HEADER_ID = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
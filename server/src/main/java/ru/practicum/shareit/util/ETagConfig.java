@@ -0,0 +1,23 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Условные GET для клиентов, которые часто перечитывают брони, вещи и запросы.
+ * На успешный GET сервер отдает сильный ETag (хеш тела ответа), а на запрос с совпавшим
+ * If-None-Match - 304 без тела.
+ */
+@Configuration
+public class ETagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/bookings/*", "/items/*", "/requests/*");
+        return registration;
+    }
+}
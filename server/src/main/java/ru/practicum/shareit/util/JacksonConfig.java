@@ -0,0 +1,21 @@
+package ru.practicum.shareit.util;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Сущности в ответах (BookingDto, ItemRequestDto) сериализуются уже после закрытия сессии Hibernate
+ * (spring.jpa.open-in-view=false). Связь, которую метод репозитория не загрузил, пишется как {"id": ...}
+ * и не приводит ни к запросу в базу, ни к LazyInitializationException.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module hibernateModule() {
+        return new Hibernate5Module()
+                .enable(Hibernate5Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+    }
+}
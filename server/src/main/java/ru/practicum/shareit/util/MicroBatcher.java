@@ -0,0 +1,100 @@
+package ru.practicum.shareit.util;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Объединение одновременных поисков по ключу в один запрос вида "where id in (...)".
+ * Первый поток, пришедший к пустому пакету, становится ведущим: ждет окно (window) или заполнения
+ * пакета до maxBatchSize, закрывает пакет и выполняет один запрос за всех. Остальные потоки добавляют
+ * свой ключ в открытый пакет и ждут результата. Если других поисков сейчас нет, ведущий не ждет окно,
+ * и одиночный запрос не получает лишней задержки.
+ * Загрузчик общий для всех потоков и ничего не кэширует.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения.
+ */
+public class MicroBatcher<K, V> {
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private final AtomicInteger active = new AtomicInteger();
+    private Batch<K, V> open;
+
+    /**
+     * @param batchFunction Загрузка значений по набору ключей одним запросом; ключей без значения нет в ответе.
+     * @param windowNanos   Сколько ведущий ждет попутные ключи.
+     * @param maxBatchSize  Пакет такого размера выполняется, не дожидаясь конца окна.
+     */
+    public MicroBatcher(Function<Collection<K>, Map<K, V>> batchFunction, long windowNanos, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @return Значение ключа или null, если его нет.
+     */
+    public V load(K key) {
+        active.incrementAndGet();
+        try {
+            Batch<K, V> batch;
+            boolean isLeader;
+            CompletableFuture<V> result;
+            synchronized (lock) {
+                isLeader = open == null;
+                if (isLeader)
+                    open = new Batch<>();
+                batch = open;
+                result = batch.results.computeIfAbsent(key, k -> new CompletableFuture<>());
+                if (batch.results.size() >= maxBatchSize) {
+                    open = null;
+                    batch.full.countDown();
+                }
+            }
+            if (isLeader)
+                lead(batch);
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private void lead(Batch<K, V> batch) {
+        if (active.get() > 1) {
+            try {
+                batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            if (open == batch)
+                open = null;
+        }
+        try {
+            Map<K, V> loaded = batchFunction.apply(batch.results.keySet());
+            batch.results.forEach((key, result) -> result.complete(loaded.get(key)));
+        } catch (RuntimeException e) {
+            batch.results.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private static class Batch<K, V> {
+        // Ключи пакета без повторов: одинаковые поиски получают один результат.
+        private final Map<K, CompletableFuture<V>> results = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
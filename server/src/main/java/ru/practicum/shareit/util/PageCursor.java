@@ -0,0 +1,73 @@
+package ru.practicum.shareit.util;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.ValidationDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static ru.practicum.shareit.util.Constants.NEXT_CURSOR_HEADER;
+
+/**
+ * Курсор для постраничной выдачи по ключу (keyset pagination).
+ * Хранит ключ последней отданной записи: время старта (только для бронирований) и ID.
+ * Клиенту передается в непрозрачном виде - строкой Base64.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+    private static final String SEPARATOR = "~";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    public static String encode(Long id) {
+        return encodeRaw(String.valueOf(id));
+    }
+
+    public static String encode(LocalDateTime start, Long id) {
+        return encodeRaw(start + SEPARATOR + id);
+    }
+
+    /**
+     * @param cursor    Курсор, полученный клиентом в заголовке X-Next-Cursor.
+     * @param withStart Флаг, должен ли курсор содержать время старта.
+     * @return Разобранный курсор.
+     */
+    public static PageCursor decode(String cursor, boolean withStart) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (withStart != (separator >= 0))
+                throw new IllegalArgumentException();
+            if (!withStart)
+                return new PageCursor(null, Long.valueOf(raw));
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationDataException(String.format("Некорректный курсор: %s", cursor));
+        }
+    }
+
+    /**
+     * Ответ со страницей данных. Если страница заполнена целиком, в заголовке
+     * X-Next-Cursor передается курсор для запроса следующей страницы.
+     */
+    public static <T> ResponseEntity<List<T>> withNext(List<T> page, Integer size, Function<T, String> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() >= size)
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)));
+        return response.body(page);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
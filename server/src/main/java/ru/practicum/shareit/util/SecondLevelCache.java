@@ -0,0 +1,38 @@
+package ru.practicum.shareit.util;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Кэш второго уровня Hibernate (регионы описаны в ehcache.xml).
+ * Каскадное удаление в базе (on delete cascade) Hibernate не видит, поэтому затронутые им регионы
+ * сбрасываются здесь.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCache {
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Есть ли сущность в кэше: тогда findById репозитория прочитает ее без запроса к базе.
+     */
+    public boolean contains(Class<?> type, Long id) {
+        return entityManagerFactory.getCache().contains(type, id);
+    }
+
+    /**
+     * Сброс вещей, запросов и кэша запросов после удаления пользователя: база удаляет их вместе с ним.
+     */
+    public void evictUserCascade() {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Item.class);
+        cache.evict(ItemRequest.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+}
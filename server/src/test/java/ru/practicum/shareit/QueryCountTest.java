@@ -0,0 +1,198 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingServiceImpl;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.FindStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestServiceImpl;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.util.PageCursor;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Число запросов в базу на каждую выдачу, включая сериализацию ответа в JSON: связи ленивые,
+ * а нужное для ответа загружается планом метода репозитория. Тест без транзакции, как и запрос к серверу:
+ * ленивая связь за пределами плана не загрузилась бы, а сломала бы сериализацию.
+ * Каждая выдача вызывается дважды, считается второй вызов: первый прогревает кэши пользователей и запросов.
+ * Брони выдаются через JPA: выдачу через JDBC проверяет BookingJdbcRepositoryTest.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class QueryCountTest {
+    private static final int BOOKINGS = 5;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository requestRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingProperties bookingProperties;
+    private final UserServiceImpl userService;
+    private final BookingServiceImpl bookingService;
+    private final ItemServiceImpl itemService;
+    private final ItemRequestServiceImpl requestService;
+    private Statistics statistics;
+    private String readMode;
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        readMode = bookingProperties.getReadMode();
+        bookingProperties.setReadMode("jpa");
+        owner = userRepository.save(User.builder()
+                .name("count owner")
+                .email("count-owner@ya.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("count booker")
+                .email("count-booker@ya.ru")
+                .build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("count request")
+                .requester(booker)
+                .created(LocalDateTime.now())
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .name("count item")
+                .description("count item")
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingProperties.setReadMode(readMode);
+        userService.remove(owner.getId());
+        userService.remove(booker.getId());
+    }
+
+    @Test
+    void bookings_byBooker() throws JsonProcessingException {
+        // Act
+        long statements = statementsOf(() -> bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 10, null));
+
+        // Assert
+        assertEquals(statements, 1L);
+    }
+
+    @Test
+    void bookings_byBookerAfterCursor() throws JsonProcessingException {
+        // Assign
+        Booking last = bookings.get(BOOKINGS - 1);
+        String cursor = PageCursor.encode(last.getStart(), last.getId());
+
+        // Act
+        long statements = statementsOf(() -> bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 10, cursor));
+
+        // Assert
+        assertEquals(statements, 1L);
+    }
+
+    @Test
+    void bookings_byOwner() throws JsonProcessingException {
+        // Act
+        long statements = statementsOf(() -> bookingService.findItemsForUser(
+                FindStatus.WAITING, owner.getId(), 0L, 10, null));
+
+        // Assert
+        assertEquals(statements, 1L);
+    }
+
+    @Test
+    void booking_byId() throws JsonProcessingException {
+        // Act
+        long statements = statementsOf(() -> bookingService.find(bookings.get(0).getId(), booker.getId()));
+
+        // Assert
+        assertEquals(statements, 1L);
+    }
+
+    @Test
+    void items_byOwner() throws JsonProcessingException {
+        // Act
+        long statements = statementsOf(() -> itemService.getListByOwner(owner.getId(), 0L, 10, null));
+
+        // Assert
+        // Вещи - из кэша запросов, в базу идут только ближайшие брони и комментарии.
+        assertEquals(statements, 2L);
+    }
+
+    @Test
+    void requests_byRequester() throws JsonProcessingException {
+        // Act
+        long statements = statementsOf(() -> requestService.getByRequester(booker.getId()));
+
+        // Assert
+        // Ответы на запросы - из кэша запросов.
+        assertEquals(statements, 1L);
+    }
+
+    @Test
+    void requests_madeByOther() throws JsonProcessingException {
+        // Act
+        long statements = statementsOf(() -> requestService.getMadeByOther(owner.getId(), 0L, 10, null));
+
+        // Assert
+        assertEquals(statements, 1L);
+    }
+
+    @Test
+    void request_byId() throws JsonProcessingException {
+        // Act
+        long statements = statementsOf(() -> requestService.getById(owner.getId(), request.getId()));
+
+        // Assert
+        assertEquals(statements, 1L);
+    }
+
+    private long statementsOf(Supplier<Object> endpoint) throws JsonProcessingException {
+        objectMapper.writeValueAsString(endpoint.get());
+        statistics.clear();
+        objectMapper.writeValueAsString(endpoint.get());
+        return statistics.getPrepareStatementCount();
+    }
+}
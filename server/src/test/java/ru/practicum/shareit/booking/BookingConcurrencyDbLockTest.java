@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.AvailabilityWindow;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.user.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки BookingConcurrencyTest с блокировками в базе (lock-mode=db): подтверждения сериализуются
+ * select ... for update строки вещи, а занятость ищется запросом в базу, а не по индексу узла.
+ */
+@SpringBootTest(properties = "shareit.booking.lock-mode=db")
+class BookingConcurrencyDbLockTest extends BookingConcurrencyTest {
+    private final ItemBookingLock itemLock;
+    private final ItemSearchEngine searchEngine;
+    private final BookingHealthIndicator healthIndicator;
+
+    @Autowired
+    BookingConcurrencyDbLockTest(BookingServiceImpl bookingService, BookingRepository bookingRepository,
+                                 ItemRepository itemRepository, UserRepository userRepository,
+                                 BookingTimeSlotIndex timeSlotIndex, TransactionTemplate transactionTemplate,
+                                 ItemBookingLock itemLock, ItemSearchEngine searchEngine,
+                                 BookingHealthIndicator healthIndicator) {
+        super(bookingService, bookingRepository, itemRepository, userRepository, timeSlotIndex,
+                transactionTemplate);
+        this.itemLock = itemLock;
+        this.searchEngine = searchEngine;
+        this.healthIndicator = healthIndicator;
+    }
+
+    @Test
+    void lockMode_db() {
+        // Assert
+        assertTrue(itemLock.isDbLock());
+        assertEquals("db", healthIndicator.health().getDetails().get("lockMode"));
+    }
+
+    @Test
+    void search_availableBetween_seesBookingsApprovedByOtherNodes() {
+        // Assign
+        Booking booking = bookings.get(0);
+        Item item = booking.getItem();
+        var window = new AvailabilityWindow(booking.getStart(), booking.getEnd());
+        // Индекс таймслотов этого узла загружает слоты вещи, пока подтвержденных броней нет.
+        assertFalse(timeSlotIndex.isBusy(item.getId(), null, booking.getStart(), booking.getEnd()));
+        // Бронь подтверждена другим узлом: в базе она есть, в индексе этого узла - нет.
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(booking);
+
+        // Act
+        var result = searchEngine.search("stress", false, window, null, 0L, 100);
+
+        // Assert
+        assertFalse(result.stream().anyMatch(found -> found.getId().equals(item.getId())));
+        assertTrue(result.stream().anyMatch(found -> found.getId().equals(items.get(1).getId())));
+    }
+}
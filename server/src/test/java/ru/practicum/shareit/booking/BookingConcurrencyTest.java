@@ -0,0 +1,172 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ValidationDataException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочная проверка подтверждения броней: данные сохраняются без транзакции теста,
+ * чтобы их видели параллельные потоки, и удаляются после теста.
+ * Блокировки в памяти узла (lock-mode=local); те же проверки с блокировками в базе -
+ * в BookingConcurrencyDbLockTest.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class BookingConcurrencyTest {
+    private static final int ITEMS = 20;
+    private static final int BOOKINGS_PER_ITEM = 100;
+    private static final int THREADS = 16;
+
+    private final BookingServiceImpl bookingService;
+    final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    final BookingTimeSlotIndex timeSlotIndex;
+    private final TransactionTemplate transactionTemplate;
+    private User owner;
+    private User booker;
+    final List<Item> items = new ArrayList<>();
+    final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("stress owner")
+                .email("stress-owner@ya.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("stress booker")
+                .email("stress-booker@ya.ru")
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("stress item")
+                    .description("stress item")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            items.add(item);
+            // Все брони вещи пересекаются между собой, подтвердить можно только одну.
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                bookings.add(Booking.builder()
+                        .start(start.plusMinutes(j))
+                        .end(start.plusHours(3).plusMinutes(j))
+                        .item(item)
+                        .booker(booker)
+                        .status(BookingStatus.WAITING)
+                        .build());
+            }
+        }
+        bookings.replaceAll(bookingRepository::save);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookings);
+        itemRepository.deleteAll(items);
+        userRepository.deleteAll(List.of(owner, booker));
+    }
+
+    @Test
+    void confirm_noDoubleBooking() throws InterruptedException {
+        // Assign
+        List<Booking> shuffled = new ArrayList<>(bookings);
+        Collections.shuffle(shuffled);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (Booking booking : shuffled) {
+            executor.execute(() -> {
+                try {
+                    startGate.await();
+                    bookingService.confirm(booking.getId(), true, owner.getId());
+                    approved.incrementAndGet();
+                } catch (ValidationDataException e) {
+                    rejected.incrementAndGet();
+                } catch (Exception e) {
+                    log.error("Неожиданная ошибка подтверждения брони ID={}.", booking.getId(), e);
+                    failed.incrementAndGet();
+                }
+            });
+        }
+
+        // Act
+        long started = System.nanoTime();
+        startGate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Подтверждений: {} за {} мс, {} в секунду.",
+                shuffled.size(), elapsedMillis, shuffled.size() * 1000L / elapsedMillis);
+
+        // Assert
+        assertEquals(0, failed.get());
+        assertEquals(ITEMS, approved.get());
+        assertEquals(ITEMS * (BOOKINGS_PER_ITEM - 1), rejected.get());
+        for (Item item : items) {
+            long approvedForItem = bookingRepository.findTimeSlots(item.getId(), BookingStatus.APPROVED).size();
+            assertEquals(1L, approvedForItem);
+        }
+    }
+
+    @Test
+    void addAfterCommit_rollbackLeavesNoSlot() {
+        // Assign
+        Booking booking = bookings.get(0);
+        booking.setStatus(BookingStatus.APPROVED);
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            timeSlotIndex.addAfterCommit(bookingRepository.save(booking));
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertFalse(timeSlotIndex.isBusy(booking.getItem().getId(), null, booking.getStart(), booking.getEnd()));
+    }
+
+    @Test
+    void addAfterCommit_commitAddsSlot() {
+        // Assign
+        Booking booking = bookings.get(0);
+        booking.setStatus(BookingStatus.APPROVED);
+
+        // Act
+        transactionTemplate.executeWithoutResult(status ->
+                timeSlotIndex.addAfterCommit(bookingRepository.save(booking)));
+
+        // Assert
+        assertTrue(timeSlotIndex.isBusy(booking.getItem().getId(), null, booking.getStart(), booking.getEnd()));
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
@@ -15,6 +17,8 @@ import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.FindStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.util.ETagConfig;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -25,11 +29,15 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.util.Constants.HEADER_ID;
+import static ru.practicum.shareit.util.Constants.NEXT_CURSOR_HEADER;
 
 @WebMvcTest(BookingController.class)
+@Import(ETagConfig.class)
 @AutoConfigureMockMvc
 class BookingControllerTest {
     @MockBean
@@ -159,6 +167,35 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value(bookingDto.getStatus().toString()));
     }
 
+    @Test
+    void find_notModified() throws Exception {
+        // Assign
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingDto bookingDto = BookingDto.builder()
+                .id(1L)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(bookingService.find(1L, 1L)).thenReturn(bookingDto);
+        String etag = mockMvc.perform(get("/bookings/1")
+                        .header(HEADER_ID, 1L))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        mockMvc.perform(get("/bookings/1")
+                        .header(HEADER_ID, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+
+                // Assert
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void findByUser() throws Exception {
         // Assign
@@ -179,7 +216,7 @@ class BookingControllerTest {
                 .booker(booker)
                 .status(BookingStatus.APPROVED)
                 .build();
-        when(bookingService.findByUser(FindStatus.ALL, 2L, 0L, 10))
+        when(bookingService.findByUser(FindStatus.ALL, 2L, 0L, 10, null))
                 .thenReturn(List.of(bookingDto1, bookingDto2));
 
         // Act
@@ -223,7 +260,7 @@ class BookingControllerTest {
                 .booker(booker)
                 .status(BookingStatus.APPROVED)
                 .build();
-        when(bookingService.findItemsForUser(FindStatus.ALL, 1L, 0L, 10))
+        when(bookingService.findItemsForUser(FindStatus.ALL, 1L, 0L, 10, null))
                 .thenReturn(List.of(bookingDto1, bookingDto2));
 
         // Act
@@ -247,4 +284,31 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[1].status").value(bookingDto2.getStatus().toString()));
     }
 
+    @Test
+    void findByUser_withCursor() throws Exception {
+        // Assign
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingDto bookingDto = BookingDto.builder()
+                .id(3L)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+        String cursor = PageCursor.encode(now.plusDays(5), 5L);
+        when(bookingService.findByUser(FindStatus.ALL, 2L, 0L, 1, cursor))
+                .thenReturn(List.of(bookingDto));
+
+        // Act
+        mockMvc.perform(get("/bookings?size=1&cursor=" + cursor)
+                        .header(HEADER_ID, 2L)
+                        .contentType(MediaType.APPLICATION_JSON))
+
+                // Assert
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(bookingDto.getId()))
+                .andExpect(header().string(NEXT_CURSOR_HEADER,
+                        PageCursor.encode(bookingDto.getStart(), bookingDto.getId())));
+    }
 }
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.FindStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.util.PageCursor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Выдача броней через JDBC совпадает с выдачей через JPA до байта JSON, для каждого FindStatus,
+ * по смещению и по курсору. Вещь в выдаче - с запросом и его автором, как у JPA, а не с одним ID запроса.
+ * Данные сохраняются без транзакции теста и удаляются после него.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class BookingJdbcRepositoryTest {
+    private static final int BOOKINGS = 30;
+    private static final int PAGE_SIZE = 10;
+
+    private final BookingServiceImpl bookingService;
+    private final BookingProperties bookingProperties;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository requestRepository;
+    private final UserRepository userRepository;
+    private final UserServiceImpl userService;
+    private final ObjectMapper objectMapper;
+    private String readMode;
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        readMode = bookingProperties.getReadMode();
+        owner = userRepository.save(User.builder()
+                .name("jdbc owner")
+                .email("jdbc-owner@ya.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("jdbc booker")
+                .email("jdbc-booker@ya.ru")
+                .build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("jdbc request")
+                .requester(booker)
+                .created(LocalDateTime.now())
+                .build());
+        Item requested = itemRepository.save(Item.builder()
+                .name("jdbc requested item")
+                .description("jdbc item")
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .name("jdbc item")
+                .description("jdbc item")
+                .available(false)
+                .owner(owner)
+                .build());
+        // Брони в прошлом, текущие и будущие во всех статусах; у части одинаковое время старта.
+        LocalDateTime start = LocalDateTime.now().minusDays(BOOKINGS / 2).truncatedTo(ChronoUnit.HOURS);
+        BookingStatus[] statuses = BookingStatus.values();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingRepository.save(Booking.builder()
+                    .start(start.plusDays(i / 2))
+                    .end(start.plusDays(i / 2 + 1).plusHours(1))
+                    .item(i % 3 == 0 ? requested : item)
+                    .booker(booker)
+                    .status(statuses[i % statuses.length])
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingProperties.setReadMode(readMode);
+        userService.remove(owner.getId());
+        userService.remove(booker.getId());
+    }
+
+    @Test
+    void findByUser_sameAsJpa() throws JsonProcessingException {
+        for (FindStatus state : FindStatus.values()) {
+            for (long from = 0; from < BOOKINGS; from += PAGE_SIZE) {
+                long offset = from;
+                assertSamePage(state + " from=" + from,
+                        () -> bookingService.findByUser(state, booker.getId(), offset, PAGE_SIZE, null));
+                assertSamePage(state + " owner from=" + from,
+                        () -> bookingService.findItemsForUser(state, owner.getId(), offset, PAGE_SIZE, null));
+            }
+        }
+    }
+
+    @Test
+    void findByUser_cursorSameAsJpa() throws JsonProcessingException {
+        for (FindStatus state : FindStatus.values()) {
+            bookingProperties.setReadMode("jpa");
+            List<BookingDto> firstPage = bookingService.findByUser(state, booker.getId(), 0L, PAGE_SIZE, null);
+            if (firstPage.isEmpty())
+                continue;
+            BookingDto last = firstPage.get(firstPage.size() - 1);
+            String cursor = PageCursor.encode(last.getStart(), last.getId());
+            assertSamePage(state + " after cursor",
+                    () -> bookingService.findByUser(state, booker.getId(), 0L, PAGE_SIZE, cursor));
+            assertSamePage(state + " owner after cursor",
+                    () -> bookingService.findItemsForUser(state, owner.getId(), 0L, PAGE_SIZE, cursor));
+        }
+    }
+
+    @Test
+    void findByUser_itemWithFullRequest() {
+        // Assign
+        bookingProperties.setReadMode("jdbc");
+
+        // Act
+        List<BookingDto> page = bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, BOOKINGS, null);
+
+        // Assert
+        assertEquals(BOOKINGS, page.size());
+        for (BookingDto booking : page) {
+            ItemRequest itemRequest = booking.getItem().getRequest();
+            if (booking.getItem().getName().equals("jdbc item")) {
+                assertNull(itemRequest);
+                continue;
+            }
+            assertEquals(request.getId(), itemRequest.getId());
+            assertEquals("jdbc request", itemRequest.getDescription());
+            assertEquals(new User(booker.getId(), "jdbc booker", "jdbc-booker@ya.ru"), itemRequest.getRequester());
+            assertNotNull(itemRequest.getCreated());
+        }
+    }
+
+    private void assertSamePage(String description, Supplier<List<BookingDto>> page) throws JsonProcessingException {
+        bookingProperties.setReadMode("jpa");
+        String expected = objectMapper.writeValueAsString(page.get());
+        bookingProperties.setReadMode("jdbc");
+        String actual = objectMapper.writeValueAsString(page.get());
+        assertEquals(expected, actual, description);
+    }
+}
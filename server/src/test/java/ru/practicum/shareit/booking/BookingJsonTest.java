@@ -0,0 +1,170 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.FindStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserServiceImpl;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JSON брони не зависит от того, как загружены связи: вещь в ответе целиком, с владельцем и запросом,
+ * а запрос - с автором, как при жадной загрузке. Ожидаемый JSON строится из обычных объектов, без прокси.
+ * Тест без транзакции: сериализация идет после закрытия сессии, как в запросе к серверу.
+ * Списки броней проверяются в обоих режимах выдачи: через JPA и через JDBC.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class BookingJsonTest {
+    private final BookingServiceImpl bookingService;
+    private final BookingProperties bookingProperties;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository requestRepository;
+    private final UserRepository userRepository;
+    private final UserServiceImpl userService;
+    private final ObjectMapper objectMapper;
+    private String readMode;
+    private User owner;
+    private User requester;
+    private User booker;
+    private ItemRequest request;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        readMode = bookingProperties.getReadMode();
+        owner = userRepository.save(User.builder()
+                .name("json owner")
+                .email("json-owner@ya.ru")
+                .build());
+        requester = userRepository.save(User.builder()
+                .name("json requester")
+                .email("json-requester@ya.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("json booker")
+                .email("json-booker@ya.ru")
+                .build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("json request")
+                .requester(requester)
+                .created(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("json item")
+                .description("json item")
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingProperties.setReadMode(readMode);
+        userService.remove(owner.getId());
+        userService.remove(requester.getId());
+        userService.remove(booker.getId());
+    }
+
+    @Test
+    void booking_fullJson() throws JsonProcessingException {
+        // Assign
+        bookingProperties.setReadMode("jpa");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        BookingInDto bookingInDto = BookingInDto.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .status(BookingStatus.WAITING)
+                .build();
+
+        // Act
+        BookingDto added = bookingService.add(bookingInDto);
+        BookingDto found = bookingService.find(added.getId(), booker.getId());
+        List<BookingDto> byBooker = bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 10, null);
+        List<BookingDto> byOwner = bookingService.findItemsForUser(FindStatus.ALL, owner.getId(), 0L, 10, null);
+        BookingDto confirmed = bookingService.confirm(added.getId(), true, owner.getId());
+
+        // Assert
+        assertEquals(json(added), expectedJson(added.getId(), start, BookingStatus.WAITING));
+        assertEquals(json(found), expectedJson(added.getId(), start, BookingStatus.WAITING));
+        assertEquals(json(byBooker), "[" + expectedJson(added.getId(), start, BookingStatus.WAITING) + "]");
+        assertEquals(json(byOwner), "[" + expectedJson(added.getId(), start, BookingStatus.WAITING) + "]");
+        assertEquals(json(confirmed), expectedJson(added.getId(), start, BookingStatus.APPROVED));
+    }
+
+    @Test
+    void bookingList_fullJsonThroughJdbc() throws JsonProcessingException {
+        // Assign
+        bookingProperties.setReadMode("jdbc");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        BookingDto added = bookingService.add(BookingInDto.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .status(BookingStatus.WAITING)
+                .build());
+
+        // Act
+        List<BookingDto> byBooker = bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 10, null);
+        List<BookingDto> byOwner = bookingService.findItemsForUser(FindStatus.ALL, owner.getId(), 0L, 10, null);
+
+        // Assert
+        assertEquals(json(byBooker), "[" + expectedJson(added.getId(), start, BookingStatus.WAITING) + "]");
+        assertEquals(json(byOwner), "[" + expectedJson(added.getId(), start, BookingStatus.WAITING) + "]");
+    }
+
+    private String json(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private String expectedJson(Long bookingId, LocalDateTime start, BookingStatus status)
+            throws JsonProcessingException {
+        return json(BookingDto.builder()
+                .id(bookingId)
+                .start(start)
+                .end(start.plusHours(2))
+                .item(Item.builder()
+                        .id(item.getId())
+                        .name(item.getName())
+                        .description(item.getDescription())
+                        .available(item.getAvailable())
+                        .owner(copyOf(owner))
+                        .request(ItemRequest.builder()
+                                .id(request.getId())
+                                .description(request.getDescription())
+                                .requester(copyOf(requester))
+                                .created(request.getCreated())
+                                .build())
+                        .build())
+                .booker(copyOf(booker))
+                .status(status)
+                .build());
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail());
+    }
+}
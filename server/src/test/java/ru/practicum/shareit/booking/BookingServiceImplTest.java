@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,10 +16,12 @@ import ru.practicum.shareit.exception.ValidationDataException;
 import ru.practicum.shareit.exception.ValidationNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.util.PageCursor;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -30,6 +34,7 @@ class BookingServiceImplTest {
     private final EntityManager em;
     private final BookingMapper bookingMapper;
     private final BookingServiceImpl bookingService;
+    private final ObjectMapper objectMapper;
     private User owner;
     private User requester;
     private User booker;
@@ -404,6 +409,139 @@ class BookingServiceImplTest {
         assertEquals(result.getMessage(), "Выбранное время бронирования уже занято.");
     }
 
+    @Test
+    void confirm_failTimeSlotEnclosed() {
+        // Assign
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking1 = Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(5))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(booking1);
+        Booking booking2 = Booking.builder()
+                .start(now.plusDays(2))
+                .end(now.plusDays(3))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(booking2);
+
+        // Act
+        var result = assertThrows(ValidationDataException.class,
+                () -> bookingService.confirm(booking2.getId(), true, owner.getId()));
+
+        // Assert
+        assertEquals(result.getMessage(), "Выбранное время бронирования уже занято.");
+    }
+
+    @Test
+    void confirm_failTimeSlotApprovedBefore() {
+        // Assign
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking1 = Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(3))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(booking1);
+        Booking booking2 = Booking.builder()
+                .start(now.plusDays(3))
+                .end(now.plusDays(4))
+                .item(item)
+                .booker(otherUser)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(booking2);
+        Booking booking3 = Booking.builder()
+                .start(now.plusDays(5))
+                .end(now.plusDays(6))
+                .item(item)
+                .booker(otherUser)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(booking3);
+
+        // Act
+        bookingService.confirm(booking1.getId(), true, owner.getId());
+        var result = assertThrows(ValidationDataException.class,
+                () -> bookingService.confirm(booking2.getId(), true, owner.getId()));
+        var resultFree = bookingService.confirm(booking3.getId(), true, owner.getId());
+
+        // Assert
+        assertEquals(result.getMessage(), "Выбранное время бронирования уже занято.");
+        assertEquals(resultFree.getStatus(), BookingStatus.APPROVED);
+    }
+
+    @Test
+    void confirm_failTimeSlotInsideOverlappingApproved() {
+        // Assign
+        LocalDateTime now = LocalDateTime.now();
+        // Пересекающиеся подтвержденные брони, оставшиеся в базе с прежних версий.
+        em.persist(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(10))
+                .item(item)
+                .booker(otherUser)
+                .status(BookingStatus.APPROVED)
+                .build());
+        em.persist(Booking.builder()
+                .start(now.plusDays(2))
+                .end(now.plusDays(3))
+                .item(item)
+                .booker(otherUser)
+                .status(BookingStatus.APPROVED)
+                .build());
+        Booking booking = Booking.builder()
+                .start(now.plusDays(5))
+                .end(now.plusDays(6))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(booking);
+
+        // Act
+        var result = assertThrows(ValidationDataException.class,
+                () -> bookingService.confirm(booking.getId(), true, owner.getId()));
+
+        // Assert
+        assertEquals("Выбранное время бронирования уже занято.", result.getMessage());
+    }
+
+    @Test
+    void add_failTimeSlotBusy() {
+        // Assign
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking1 = Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(3))
+                .item(item)
+                .booker(otherUser)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(booking1);
+        BookingInDto bookingInDto = BookingInDto.builder()
+                .start(now.plusDays(2))
+                .end(now.plusDays(4))
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .status(BookingStatus.WAITING)
+                .build();
+
+        // Act
+        var result = assertThrows(ValidationDataException.class,
+                () -> bookingService.add(bookingInDto));
+
+        // Assert
+        assertEquals(result.getMessage(), "Выбранное время бронирования уже занято.");
+    }
+
     @Test
     void find_ok() {
         // Assign
@@ -490,9 +628,9 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void findByUser_ok() {
+    void findByUser_ok() throws JsonProcessingException {
         // Assign
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
         Booking bookingCurrent = Booking.builder()
                 .start(now.minusDays(1))
                 .end(now.plusDays(1))
@@ -535,39 +673,78 @@ class BookingServiceImplTest {
         em.persist(bookingByOther);
 
         // Act
-        var resultCurrent = bookingService.findByUser(FindStatus.CURRENT, booker.getId(), 0L, 10);
-        var resultPast = bookingService.findByUser(FindStatus.PAST, booker.getId(), 0L, 10);
-        var resultFuture = bookingService.findByUser(FindStatus.FUTURE, booker.getId(), 0L, 10);
-        var resultWaiting = bookingService.findByUser(FindStatus.WAITING, booker.getId(), 0L, 10);
-        var resultRejected = bookingService.findByUser(FindStatus.REJECTED, booker.getId(), 0L, 10);
-        var resultAll = bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 10);
+        var resultCurrent = bookingService.findByUser(FindStatus.CURRENT, booker.getId(), 0L, 10, null);
+        var resultPast = bookingService.findByUser(FindStatus.PAST, booker.getId(), 0L, 10, null);
+        var resultFuture = bookingService.findByUser(FindStatus.FUTURE, booker.getId(), 0L, 10, null);
+        var resultWaiting = bookingService.findByUser(FindStatus.WAITING, booker.getId(), 0L, 10, null);
+        var resultRejected = bookingService.findByUser(FindStatus.REJECTED, booker.getId(), 0L, 10, null);
+        var resultAll = bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 10, null);
 
         // Assert
         assertNotNull(resultCurrent);
         assertEquals(resultCurrent.size(), 2);
-        assertEquals(resultCurrent.get(0), bookingMapper.toBookingDto(bookingCurrent));
-        assertEquals(resultCurrent.get(1), bookingMapper.toBookingDto(bookingRejected));
+        assertEquals(json(resultCurrent.get(0)), json(bookingMapper.toBookingDto(bookingCurrent)));
+        assertEquals(json(resultCurrent.get(1)), json(bookingMapper.toBookingDto(bookingRejected)));
 
         assertNotNull(resultPast);
         assertEquals(resultPast.size(), 1);
-        assertEquals(resultPast.get(0), bookingMapper.toBookingDto(bookingPast));
+        assertEquals(json(resultPast.get(0)), json(bookingMapper.toBookingDto(bookingPast)));
 
         assertNotNull(resultFuture);
         assertEquals(resultFuture.size(), 1);
-        assertEquals(resultFuture.get(0), bookingMapper.toBookingDto(bookingFuture));
+        assertEquals(json(resultFuture.get(0)), json(bookingMapper.toBookingDto(bookingFuture)));
 
         assertNotNull(resultWaiting);
         assertEquals(resultWaiting.size(), 1);
-        assertEquals(resultWaiting.get(0), bookingMapper.toBookingDto(bookingFuture));//bookingFuture в статусе Waiting
+        assertEquals(json(resultWaiting.get(0)), json(bookingMapper.toBookingDto(bookingFuture)));//bookingFuture в статусе Waiting
 
         assertNotNull(resultRejected);
         assertEquals(resultRejected.size(), 1);
-        assertEquals(resultRejected.get(0), bookingMapper.toBookingDto(bookingRejected));
+        assertEquals(json(resultRejected.get(0)), json(bookingMapper.toBookingDto(bookingRejected)));
 
         assertNotNull(resultAll);
         assertEquals(resultAll.size(), 4);
     }
 
+    @Test
+    void findByUser_cursor() throws JsonProcessingException {
+        // Assign
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(Booking.builder()
+                    .start(now.plusDays(i))
+                    .end(now.plusDays(i).plusHours(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+
+        // Act
+        var firstPage = bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 2, null);
+        var last = firstPage.get(firstPage.size() - 1);
+        var secondPage = bookingService.findByUser(FindStatus.FUTURE, booker.getId(), 0L, 2,
+                PageCursor.encode(last.getStart(), last.getId()));
+        var offsetPage = bookingService.findByUser(FindStatus.ALL, booker.getId(), 2L, 2, null);
+
+        // Assert
+        assertEquals(firstPage.size(), 2);
+        assertEquals(firstPage.get(0).getStart(), now.plusDays(5));
+        assertEquals(secondPage.size(), 2);
+        assertEquals(json(secondPage), json(offsetPage));
+        assertEquals(secondPage.get(0).getStart(), now.plusDays(3));
+    }
+
+    @Test
+    void findByUser_failCursor() {
+        // Act
+        var result = assertThrows(ValidationDataException.class,
+                () -> bookingService.findByUser(FindStatus.ALL, booker.getId(), 0L, 2, "broken"));
+
+        // Assert
+        assertEquals(result.getMessage(), "Некорректный курсор: broken");
+    }
+
     @Test
     void findByUser_fail() {
         // Assign
@@ -583,16 +760,16 @@ class BookingServiceImplTest {
 
         // Act
         var result = assertThrows(ValidationNotFoundException.class,
-                () -> bookingService.findByUser(FindStatus.ALL, 0L, 0L, 10));
+                () -> bookingService.findByUser(FindStatus.ALL, 0L, 0L, 10, null));
 
         // Assert
         assertEquals(result.getMessage(), "Пользователь ID=0 не найден.");
     }
 
     @Test
-    void findItemsForUser_ok() {
+    void findItemsForUser_ok() throws JsonProcessingException {
         // Assign
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
         Booking bookingCurrent = Booking.builder()
                 .start(now.minusDays(1))
                 .end(now.plusDays(1))
@@ -636,39 +813,39 @@ class BookingServiceImplTest {
 
         // Act
         var resultCurrent = bookingService.findItemsForUser(
-                FindStatus.CURRENT, owner.getId(), 0L, 10);
+                FindStatus.CURRENT, owner.getId(), 0L, 10, null);
         var resultPast = bookingService.findItemsForUser(
-                FindStatus.PAST, owner.getId(), 0L, 10);
+                FindStatus.PAST, owner.getId(), 0L, 10, null);
         var resultFuture = bookingService.findItemsForUser(
-                FindStatus.FUTURE, owner.getId(), 0L, 10);
+                FindStatus.FUTURE, owner.getId(), 0L, 10, null);
         var resultWaiting = bookingService.findItemsForUser(
-                FindStatus.WAITING, owner.getId(), 0L, 10);
+                FindStatus.WAITING, owner.getId(), 0L, 10, null);
         var resultRejected = bookingService.findItemsForUser(
-                FindStatus.REJECTED, owner.getId(), 0L, 10);
+                FindStatus.REJECTED, owner.getId(), 0L, 10, null);
         var resultAll = bookingService.findItemsForUser(
-                FindStatus.ALL, owner.getId(), 0L, 10);
+                FindStatus.ALL, owner.getId(), 0L, 10, null);
 
         // Assert
         assertNotNull(resultCurrent);
         assertEquals(resultCurrent.size(), 2);
-        assertEquals(resultCurrent.get(0), bookingMapper.toBookingDto(bookingCurrent));
-        assertEquals(resultCurrent.get(1), bookingMapper.toBookingDto(bookingRejected));
+        assertEquals(json(resultCurrent.get(0)), json(bookingMapper.toBookingDto(bookingCurrent)));
+        assertEquals(json(resultCurrent.get(1)), json(bookingMapper.toBookingDto(bookingRejected)));
 
         assertNotNull(resultPast);
         assertEquals(resultPast.size(), 1);
-        assertEquals(resultPast.get(0), bookingMapper.toBookingDto(bookingPast));
+        assertEquals(json(resultPast.get(0)), json(bookingMapper.toBookingDto(bookingPast)));
 
         assertNotNull(resultFuture);
         assertEquals(resultFuture.size(), 1);
-        assertEquals(resultFuture.get(0), bookingMapper.toBookingDto(bookingFuture));
+        assertEquals(json(resultFuture.get(0)), json(bookingMapper.toBookingDto(bookingFuture)));
 
         assertNotNull(resultWaiting);
         assertEquals(resultWaiting.size(), 1);
-        assertEquals(resultWaiting.get(0), bookingMapper.toBookingDto(bookingFuture)); //bookingFuture в статусе Waiting
+        assertEquals(json(resultWaiting.get(0)), json(bookingMapper.toBookingDto(bookingFuture))); //bookingFuture в статусе Waiting
 
         assertNotNull(resultRejected);
         assertEquals(resultRejected.size(), 1);
-        assertEquals(resultRejected.get(0), bookingMapper.toBookingDto(bookingRejected));
+        assertEquals(json(resultRejected.get(0)), json(bookingMapper.toBookingDto(bookingRejected)));
 
         assertNotNull(resultAll);
         assertEquals(resultAll.size(), 4);
@@ -689,9 +866,14 @@ class BookingServiceImplTest {
 
         // Act
         var result = assertThrows(ValidationNotFoundException.class,
-                () -> bookingService.findItemsForUser(FindStatus.ALL, 0L, 0L, 10));
+                () -> bookingService.findItemsForUser(FindStatus.ALL, 0L, 0L, 10, null));
 
         // Assert
         assertEquals(result.getMessage(), "Пользователь ID=0 не найден.");
     }
-}
\ No newline at end of file
+
+    // Брони списков собираются из строк JDBC с новыми экземплярами вещей, поэтому сравниваются по JSON ответа.
+    private String json(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(value);
+    }
+}
@@ -24,6 +24,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -151,7 +152,7 @@ class ItemControllerTest {
                 .description("description2")
                 .available(true)
                 .build();
-        when(itemService.getListByOwner(eq(owner.getId()), eq(0L), eq(10)))
+        when(itemService.getListByOwner(eq(owner.getId()), eq(0L), eq(10), isNull()))
                 .thenReturn(List.of(itemViewDto1, itemViewDto2));
 
         // Act
@@ -195,7 +196,7 @@ class ItemControllerTest {
                 .available(true)
                 .ownerId(owner.getId())
                 .build();
-        when(itemService.findItems(eq("orDle"), eq(0L), eq(10)))
+        when(itemService.findItems(eq("orDle"), eq(false), isNull(), isNull(), eq(0L), eq(10), isNull()))
                 .thenReturn(List.of(itemDto1, itemDto2));
 
         // Act
@@ -246,4 +247,22 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.authorName").value(commentDto.getAuthorName()))
                 .andExpect(jsonPath("$.created", is(commentDto.getCreated().toString())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void suggest() throws Exception {
+        // Assign
+        when(itemService.suggest("дре", 5))
+                .thenReturn(List.of("Дрель", "Дрель ударная"));
+
+        // Act
+        mockMvc.perform(get("/items/suggest?prefix=дре&size=5")
+                        .header(HEADER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_JSON))
+
+                // Assert
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0]", is("Дрель")))
+                .andExpect(jsonPath("$[1]", is("Дрель ударная")));
+    }
+}
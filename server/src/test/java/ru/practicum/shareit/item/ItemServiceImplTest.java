@@ -6,6 +6,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.ValidationDataException;
@@ -16,14 +18,19 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserServiceImpl;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -33,6 +40,7 @@ class ItemServiceImplTest {
     private final ItemServiceImpl itemService;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final UserServiceImpl userService;
     private User owner;
     private User requester;
     private User commentator;
@@ -109,7 +117,7 @@ class ItemServiceImplTest {
         em.persist(item);
         Comment comment = Comment.builder()
                 .itemId(item.getId())
-                .created(LocalDateTime.now())
+                .created(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
                 .authorId(commentator.getId())
                 .text("comment")
                 .build();
@@ -124,7 +132,7 @@ class ItemServiceImplTest {
         assertEquals(resultOwner.getName(), item.getName());
         assertEquals(resultOwner.getDescription(), item.getDescription());
         assertEquals(resultOwner.getAvailable(), item.getAvailable());
-        assertEquals(resultOwner.getComments().get(0), commentMapper.toCommentDto(comment));
+        assertEquals(resultOwner.getComments().get(0), commentMapper.toCommentDto(comment, commentator.getName()));
         //TODO Можно добавить проверку на запрос от владельца и другого юзера (наличие дат бронирования).
     }
 
@@ -153,19 +161,93 @@ class ItemServiceImplTest {
         em.persist(item);
         Comment comment = Comment.builder()
                 .itemId(item.getId())
-                .created(LocalDateTime.now())
+                .created(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
                 .authorId(commentator.getId())
                 .text("comment")
                 .build();
         em.persist(comment);
 
         // Act
-        var result = itemService.getListByOwner(owner.getId(), 0L, 10);
+        var result = itemService.getListByOwner(owner.getId(), 0L, 10, null);
 
         // Assert
         assertNotNull(result);
         assertEquals(result.size(), 1);
-        assertEquals(result.get(0), itemMapper.toItemViewDto(item, true));
+        assertEquals(result.get(0), itemMapper.toItemViewDto(item, null, null,
+                List.of(commentMapper.toCommentDto(comment, commentator.getName()))));
+    }
+
+    @Test
+    void getListByOwner_nearestBookings() {
+        // Assign
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Item item1 = Item.builder()
+                .name("item1")
+                .description("desc of item1")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(item1);
+        Item item2 = Item.builder()
+                .name("item2")
+                .description("desc of item2")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(item2);
+        Booking pastOld = Booking.builder()
+                .start(now.minusDays(5))
+                .end(now.minusDays(4))
+                .item(item1)
+                .booker(requester)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(pastOld);
+        Booking past = Booking.builder()
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .item(item1)
+                .booker(commentator)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(past);
+        Booking next = Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(item1)
+                .booker(requester)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(next);
+        Booking nextLater = Booking.builder()
+                .start(now.plusDays(3))
+                .end(now.plusDays(4))
+                .item(item1)
+                .booker(commentator)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(nextLater);
+        Booking nextOfItem2 = Booking.builder()
+                .start(now.plusDays(5))
+                .end(now.plusDays(6))
+                .item(item2)
+                .booker(requester)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(nextOfItem2);
+
+        // Act
+        var result = itemService.getListByOwner(owner.getId(), 0L, 10, null);
+
+        // Assert
+        assertEquals(result.size(), 2);
+        assertEquals(result.get(0).getLastBooking().getId(), past.getId());
+        assertEquals(result.get(0).getLastBooking().getBookerId(), commentator.getId());
+        assertEquals(result.get(0).getNextBooking().getId(), next.getId());
+        assertEquals(result.get(0).getNextBooking().getBookerId(), requester.getId());
+        assertNull(result.get(1).getLastBooking());
+        assertEquals(result.get(1).getNextBooking().getId(), nextOfItem2.getId());
+        assertTrue(result.get(1).getComments().isEmpty());
     }
 
     @Test
@@ -175,7 +257,7 @@ class ItemServiceImplTest {
         // Act
         // Несуществующий владелец.
         var e = assertThrows(ValidationNotFoundException.class,
-                () -> itemService.getListByOwner(0L, 0L, 10));
+                () -> itemService.getListByOwner(0L, 0L, 10, null));
 
         // Assert
         assertEquals(e.getMessage(), "Владелец ID=0 не найден.");
@@ -294,8 +376,10 @@ class ItemServiceImplTest {
                 .build();
         em.persist(item3);
 
+        commitToIndexes();
+
         // Act
-        var result = itemService.findItems("аккУМУляторная", 0L, 10);
+        var result = itemService.findItems("аккУМУляторная", false, null, null, 0L, 10, null);
 
         // Assert
         assertNotNull(result);
@@ -304,6 +388,177 @@ class ItemServiceImplTest {
         assertEquals(result.get(1), itemMapper.toItemDto(item2));
     }
 
+    @Test
+    void findItems_availableBetween() {
+        // Assign
+        LocalDateTime saturday = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.DAYS);
+        Item busy = Item.builder()
+                .name("Дрель")
+                .description("Ударная дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(busy);
+        Item waiting = Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(waiting);
+        Item free = Item.builder()
+                .name("Дрель")
+                .description("Дрель-шуруповерт")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(free);
+        em.persist(Booking.builder()
+                .start(saturday.minusDays(1))
+                .end(saturday.plusHours(10))
+                .item(busy)
+                .booker(requester)
+                .status(BookingStatus.APPROVED)
+                .build());
+        em.persist(Booking.builder()
+                .start(saturday.plusHours(9))
+                .end(saturday.plusHours(18))
+                .item(waiting)
+                .booker(requester)
+                .status(BookingStatus.WAITING)
+                .build());
+        em.persist(Booking.builder()
+                .start(saturday.plusDays(1))
+                .end(saturday.plusDays(2))
+                .item(free)
+                .booker(requester)
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        commitToIndexes();
+
+        // Act
+        var result = itemService.findItems("дрель", false,
+                saturday.plusHours(9), saturday.plusHours(18), 0L, 10, null);
+        var all = itemService.findItems("дрель", false, null, null, 0L, 10, null);
+
+        // Assert
+        assertEquals(result.size(), 2);
+        assertTrue(result.contains(itemMapper.toItemDto(waiting)));
+        assertTrue(result.contains(itemMapper.toItemDto(free)));
+        assertEquals(all.size(), 3);
+    }
+
+    @Test
+    void findItems_failByWindow() {
+        // Assign
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        Throwable thrown1 = assertThrows(ValidationDataException.class,
+                () -> itemService.findItems("дрель", false, now, null, 0L, 10, null));
+        Throwable thrown2 = assertThrows(ValidationDataException.class,
+                () -> itemService.findItems("дрель", false, now.plusDays(1), now, 0L, 10, null));
+
+        // Assert
+        assertEquals(thrown1.getMessage(), "Для поиска свободных вещей нужны оба параметра: " +
+                "availableFrom и availableTo.");
+        assertEquals(thrown2.getMessage(), "Начало интервала доступности позже окончания.");
+    }
+
+    @Test
+    void suggest() {
+        // Assign
+        Item item1 = Item.builder()
+                .name("Перфоратор Bosch")
+                .description("desc")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(item1);
+        Item item2 = Item.builder()
+                .name("Перфоратор Makita")
+                .description("desc")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(item2);
+        Item item3 = Item.builder()
+                .name("Перфоратор Makita")
+                .description("desc")
+                .available(true)
+                .owner(requester)
+                .build();
+        em.persist(item3);
+        Item item4 = Item.builder()
+                .name("Перфоратор Hilti")
+                .description("desc")
+                .available(false)
+                .owner(owner)
+                .build();
+        em.persist(item4);
+
+        commitToIndexes();
+
+        // Act
+        var result = itemService.suggest("перфоратор", 10);
+
+        // Assert
+        assertEquals(List.of("Перфоратор Makita", "Перфоратор Bosch"), result);
+        assertEquals(List.of("Перфоратор Makita"), itemService.suggest("ПЕРФОРАТОР M", 10));
+        assertEquals(List.of("Перфоратор Makita"), itemService.suggest("перфоратор", 1));
+        assertTrue(itemService.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_afterOwnerRemoved() {
+        // Assign
+        for (int i = 0; i < 2; i++) {
+            em.persist(Item.builder()
+                    .name("Шуруповерт Bosch")
+                    .description("desc")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        }
+        em.persist(Item.builder()
+                .name("Шуруповерт Makita")
+                .description("desc")
+                .available(true)
+                .owner(requester)
+                .build());
+        commitToIndexes();
+        assertEquals(List.of("Шуруповерт Bosch", "Шуруповерт Makita"), itemService.suggest("шуруповерт", 10));
+
+        // Act
+        userService.remove(owner.getId());
+
+        // Assert
+        assertEquals(List.of("Шуруповерт Makita"), itemService.suggest("шуруповерт", 10));
+    }
+
+    @Test
+    void suggest_notBeforeCommit() {
+        // Assign
+        itemService.suggest("стремянка", 10);
+        em.persist(Item.builder()
+                .name("Стремянка")
+                .description("desc")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        // Act
+        em.flush();
+
+        // Assert
+        assertTrue(itemService.suggest("стремянка", 10).isEmpty());
+        assertTrue(itemService.findItems("стремянка", false, null, null, 0L, 10, null).isEmpty());
+        commitToIndexes();
+        assertEquals(List.of("Стремянка"), itemService.suggest("стремянка", 10));
+        assertEquals(1, itemService.findItems("стремянка", false, null, null, 0L, 10, null).size());
+    }
+
     @Test
     void addComment_ok() {
         // Assign
@@ -329,7 +584,7 @@ class ItemServiceImplTest {
                 .authorId(commentator.getId())
                 .text("comment")
                 .build();
-        CommentDto commentDto = commentMapper.toCommentDto(comment);
+        CommentDto commentDto = commentMapper.toCommentDto(comment, commentator.getName());
 
         // Act
         itemService.addComment(commentDto, item.getId(), commentator.getId());
@@ -363,14 +618,15 @@ class ItemServiceImplTest {
                 .authorId(commentator.getId())
                 .text("comment")
                 .build();
-        CommentDto commentDto = commentMapper.toCommentDto(comment);
+        CommentDto commentDto = commentMapper.toCommentDto(comment, commentator.getName());
         // Act
         var exceptionUserNotFound = assertThrows(ValidationNotFoundException.class,
                 () -> itemService.addComment(commentDto, item.getId(), 0L));
         var exceptionItemNotFound = assertThrows(ValidationNotFoundException.class,
                 () -> itemService.addComment(commentDto, 0L, commentator.getId()));
         var exceptionNoBooking = assertThrows(ValidationDataException.class,
-                () -> itemService.addComment(commentMapper.toCommentDto(comment), item.getId(), commentator.getId()));
+                () -> itemService.addComment(commentMapper.toCommentDto(comment, commentator.getName()),
+                        item.getId(), commentator.getId()));
 
         // Assert
         assertEquals(exceptionUserNotFound.getMessage(), "Пользователь ID=0 не найден.");
@@ -378,4 +634,13 @@ class ItemServiceImplTest {
         assertEquals(exceptionNoBooking.getMessage(), String
                 .format("Пользователь ID=%s не пользовался вещью ID=%s.", commentator.getId(), item.getId()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Тестовая транзакция откатывается, а индексы поиска и подсказок получают вещи только после фиксации.
+     * Колбэки фиксации вызываются вручную.
+     */
+    private void commitToIndexes() {
+        em.flush();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+}
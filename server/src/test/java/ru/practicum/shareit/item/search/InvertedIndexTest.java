@@ -0,0 +1,203 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(1L, "Аккумуляторная дрель. Аккумуляторная дрель + аккумулятор", true);
+        index.put(2L, "Отвертка. Аккумуляторная отвертка", true);
+        index.put(3L, "Дрель ударная", true);
+        index.put(4L, "Power drills set", true);
+    }
+
+    @Test
+    void search_rankedByRelevance() {
+        // Act
+        var result = index.search("аккУМУляторная");
+
+        // Assert
+        assertEquals(List.of(1L, 2L), result);
+    }
+
+    @Test
+    void search_stemsAndPrefixes() {
+        // Act
+        var result = index.search("дрели");
+
+        // Assert
+        assertEquals(List.of(1L, 3L), result);
+        assertEquals(List.of(2L), index.search("отвертку"));
+        assertEquals(List.of(4L), index.search("drill"));
+        assertEquals(List.of(1L, 2L), index.search("аккум"));
+    }
+
+    @Test
+    void search_allTermsRequired() {
+        // Act
+        var result = index.search("ударная дрель");
+
+        // Assert
+        assertEquals(List.of(3L), result);
+    }
+
+    @Test
+    void search_fuzzy() {
+        // Act
+        var result = index.search("дрлеь", true);
+
+        // Assert
+        assertTrue(index.search("дрлеь").isEmpty());
+        assertEquals(List.of(1L, 3L), result);
+        assertEquals(List.of(2L), index.search("атвертка", true));
+        assertEquals(List.of(4L), index.search("dirlls", true));
+        assertTrue(index.search("молоток", true).isEmpty());
+    }
+
+    @Test
+    void put_dropsFuzzyTermsOfReplacedText() {
+        // Assign
+        int before = index.fuzzyTermCount();
+
+        // Act
+        for (int i = 0; i < 1000; i++)
+            index.put(5L, "Стремянка " + i + "-я", true);
+        index.remove(5L);
+
+        // Assert
+        assertEquals(before, index.fuzzyTermCount());
+        assertTrue(index.search("стремянка", true).isEmpty());
+    }
+
+    @Test
+    void put_replacesAndHidesUnavailable() {
+        // Act
+        index.put(3L, "Дрель ударная", false);
+        index.put(2L, "Шуруповерт", true);
+
+        // Assert
+        assertEquals(List.of(1L), index.search("дрель"));
+        assertTrue(index.search("отвертка").isEmpty());
+        assertEquals(List.of(2L), index.search("шуруповерт"));
+    }
+
+    @Test
+    void remove() {
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertEquals(List.of(2L), index.search("аккумуляторная"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void open_restoresSegmentAndLog(@TempDir Path dir) throws IOException {
+        // Assign
+        Path segmentFile = dir.resolve("items.seg");
+        Path walFile = dir.resolve("items.wal");
+        InvertedIndex persistent = InvertedIndex.open(segmentFile, walFile);
+        persistent.put(1L, "Аккумуляторная дрель. Аккумуляторная дрель + аккумулятор", true);
+        persistent.put(2L, "Отвертка. Аккумуляторная отвертка", true);
+        persistent.put(3L, "Дрель ударная", true);
+        persistent.compact();
+        // Изменения после слияния попадают только в журнал.
+        persistent.put(3L, "Дрель ударная", false);
+        persistent.remove(2L);
+        persistent.put(5L, "Дрель-шуруповерт", true);
+
+        // Act
+        InvertedIndex reopened = InvertedIndex.open(segmentFile, walFile);
+
+        // Assert
+        assertEquals(persistent.search("дрель"), reopened.search("дрель"));
+        assertEquals(List.of(1L, 5L), reopened.search("дрель"));
+        assertEquals(List.of(1L), reopened.search("аккумуляторная"));
+        assertEquals(3, reopened.size());
+        assertEquals(0, reopened.pendingSize());
+    }
+
+    @Test
+    void open_truncatesTornRecord(@TempDir Path dir) throws IOException {
+        // Assign
+        Path segmentFile = dir.resolve("items.seg");
+        Path walFile = dir.resolve("items.wal");
+        // Падение во время первой записи: в журнале только начало записи put.
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(walFile))) {
+            out.writeByte(1);
+            out.writeInt(0);
+        }
+        InvertedIndex persistent = InvertedIndex.open(segmentFile, walFile);
+        persistent.put(5L, "Дрель-шуруповерт", true);
+
+        // Act
+        InvertedIndex reopened = InvertedIndex.open(segmentFile, walFile);
+
+        // Assert
+        assertEquals(List.of(5L), reopened.search("дрель"));
+    }
+
+    @Test
+    void open_rejectsUnknownOperation(@TempDir Path dir) throws IOException {
+        // Assign
+        Path walFile = dir.resolve("items.wal");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(walFile))) {
+            out.writeByte(7);
+            out.writeLong(1L);
+        }
+
+        // Act
+        var e = assertThrows(IOException.class, () -> InvertedIndex.open(dir.resolve("items.seg"), walFile));
+
+        // Assert
+        assertTrue(e.getMessage().contains("неизвестная операция 7"));
+    }
+
+    @Test
+    void compact_keepsChangesMadeDuringMerge(@TempDir Path dir) throws IOException {
+        // Assign
+        Path segmentFile = dir.resolve("items.seg");
+        Path walFile = dir.resolve("items.wal");
+        InvertedIndex persistent = InvertedIndex.open(segmentFile, walFile);
+        int documents = 2000;
+        for (long id = 1; id <= documents / 2; id++)
+            persistent.put(id, "Дрель " + id, true);
+
+        // Act
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (long id = documents / 2 + 1; id <= documents; id++)
+                persistent.put(id, "Дрель " + id, true);
+            for (long id = 1; id <= documents; id += 2)
+                persistent.remove(id);
+        });
+        while (!writer.isDone())
+            persistent.compact();
+        writer.join();
+        InvertedIndex reopened = InvertedIndex.open(segmentFile, walFile);
+
+        // Assert
+        List<Long> evenIds = LongStream.rangeClosed(1, documents).filter(id -> id % 2 == 0).boxed()
+                .collect(Collectors.toList());
+        assertEquals(evenIds, persistent.search("дрель"));
+        assertEquals(evenIds, reopened.search("дрель"));
+        assertEquals(documents / 2, reopened.size());
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+    private TrigramIndex trigrams;
+
+    @BeforeEach
+    void setUp() {
+        trigrams = new TrigramIndex();
+        for (String term : Set.of("дрель", "дрели", "дрельный", "модель", "перфоратор", "перфораторы", "ель"))
+            trigrams.add(term);
+    }
+
+    @Test
+    void similar_withinEditsAndLength() {
+        // Act
+        var result = trigrams.similar("дрлеь");
+
+        // Assert
+        assertEquals(Set.of("дрель", "дрели"), result);
+        assertEquals(Set.of("перфоратор"), trigrams.similar("перфаратр"));
+        assertEquals(Set.of("ель"), trigrams.similar("ель"));
+        assertTrue(trigrams.similar("ел").isEmpty());
+    }
+
+    @Test
+    void remove_dropsEmptyGrams() {
+        // Act
+        trigrams.remove("дрель");
+        trigrams.remove("дрели");
+        trigrams.remove("дрели");
+
+        // Assert
+        assertEquals(5, trigrams.size());
+        assertTrue(trigrams.similar("дрлеь").isEmpty());
+        trigrams.add("дрель");
+        assertEquals(Set.of("дрель"), trigrams.similar("дрлеь"));
+    }
+}
@@ -18,6 +18,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -108,7 +109,7 @@ class ItemRequestControllerTest {
                 .requester(requester)
                 .created(now)
                 .build();
-        when(itemRequestService.getMadeByOther(eq(requester.getId()), eq(0L), eq(10)))
+        when(itemRequestService.getMadeByOther(eq(requester.getId()), eq(0L), eq(10), isNull()))
                 .thenReturn(List.of(itemRequestDto));
 
         // Act
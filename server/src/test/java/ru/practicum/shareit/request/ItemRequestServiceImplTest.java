@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.exception.ValidationNotFoundException;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.User;
 
@@ -17,6 +18,7 @@ import java.time.LocalDateTime;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -145,7 +147,7 @@ class ItemRequestServiceImplTest {
         em.persist(itemRequest2);
 
         //Act
-        var result = itemRequestService.getMadeByOther(requester.getId(), 0L, 10);
+        var result = itemRequestService.getMadeByOther(requester.getId(), 0L, 10, null);
 
         //Assert
         assertNotNull(result);
@@ -160,7 +162,7 @@ class ItemRequestServiceImplTest {
 
         // Act
         var result = assertThrows(ValidationNotFoundException.class,
-                () -> itemRequestService.getMadeByOther(0L, 0L, 10));
+                () -> itemRequestService.getMadeByOther(0L, 0L, 10, null));
 
         // Assert
         assertEquals(result.getMessage(), "Пользователь userID=0 не найден.");
@@ -186,6 +188,48 @@ class ItemRequestServiceImplTest {
         assertEquals(result.getDescription(), itemRequest1.getDescription());
     }
 
+    @Test
+    void getById_withItems() {
+        //Assign
+        LocalDateTime now = LocalDateTime.now();
+        ItemRequest itemRequest1 = ItemRequest.builder()
+                .created(now)
+                .description("request1")
+                .requester(requester)
+                .build();
+        em.persist(itemRequest1);
+        ItemRequest itemRequest2 = ItemRequest.builder()
+                .created(now)
+                .description("request2")
+                .requester(requester)
+                .build();
+        em.persist(itemRequest2);
+        Item item = Item.builder()
+                .name("item")
+                .description("answer to request2")
+                .available(true)
+                .owner(owner)
+                .request(itemRequest2)
+                .build();
+        em.persist(item);
+
+        //Act
+        var result = itemRequestService.getByRequester(requester.getId());
+
+        //Assert
+        assertEquals(result.size(), 2);
+        var answered = result.stream()
+                .filter(r -> r.getId().equals(itemRequest2.getId()))
+                .findFirst().orElseThrow();
+        var unanswered = result.stream()
+                .filter(r -> r.getId().equals(itemRequest1.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(answered.getItems().size(), 1);
+        assertEquals(answered.getItems().get(0).getId(), item.getId());
+        assertEquals(answered.getItems().get(0).getRequestId(), itemRequest2.getId());
+        assertTrue(unanswered.getItems().isEmpty());
+    }
+
     @Test
     void getById_fail() {
         // Assign
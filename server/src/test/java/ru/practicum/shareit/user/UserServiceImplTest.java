@@ -10,8 +10,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.BookingTimeSlotIndex;
 import ru.practicum.shareit.exception.ValidationNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.SecondLevelCache;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +34,16 @@ import static org.mockito.Mockito.when;
 class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private BookingTimeSlotIndex timeSlotIndex;
+    @Mock
+    private KnownUserCache knownUsers;
+    @Mock
+    private SecondLevelCache secondLevelCache;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemNameSuggester nameSuggester;
     private UserServiceImpl userService;
     private UserMapper userMapper;
     @Captor
@@ -38,7 +52,8 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         userMapper = new UserMapper();
-        userService = new UserServiceImpl(userRepository, userMapper);
+        userService = new UserServiceImpl(userRepository, userMapper, timeSlotIndex, knownUsers, secondLevelCache,
+                itemRepository, nameSuggester);
     }
 
     @AfterEach
@@ -65,6 +80,7 @@ class UserServiceImplTest {
         assertEquals("test@ya.ru", result.getEmail());
         assertEquals("test", result.getName());
         verify(userRepository).save(user);
+        verify(knownUsers).remember(1L);
     }
 
     @Test
@@ -179,6 +195,7 @@ class UserServiceImplTest {
         // Assign
         when(userRepository.existsById(1L)).thenReturn(true);
         doNothing().when(userRepository).deleteById(1L);
+        when(itemRepository.findIdsByOwnerId(1L)).thenReturn(List.of(10L, 11L));
 
         // Act
         userService.remove(1L);
@@ -186,6 +203,10 @@ class UserServiceImplTest {
         // Assert
         verify(userRepository).existsById(1L);
         verify(userRepository).deleteById(1L);
+        verify(timeSlotIndex).clear();
+        verify(knownUsers).forget(1L);
+        verify(secondLevelCache).evictUserCascade();
+        verify(nameSuggester).onRemoved(List.of(10L, 11L));
     }
 
     @Test
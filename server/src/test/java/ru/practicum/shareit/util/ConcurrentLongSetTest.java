@@ -0,0 +1,70 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLongSetTest {
+
+    @Test
+    void addContainsRemove() {
+        // Assign
+        ConcurrentLongSet set = new ConcurrentLongSet(1000, 8);
+
+        // Act
+        for (long value = 1; value <= 500; value++)
+            set.add(value);
+        set.remove(7L);
+
+        // Assert
+        assertEquals(499, set.size());
+        assertTrue(set.contains(1L));
+        assertTrue(set.contains(500L));
+        assertFalse(set.contains(7L));
+        assertFalse(set.contains(501L));
+        assertFalse(set.contains(0L));
+    }
+
+    @Test
+    void add_boundedBySize() {
+        // Assign
+        ConcurrentLongSet set = new ConcurrentLongSet(1000, 8);
+
+        // Act
+        for (long value = 1; value <= 100_000; value++)
+            set.add(value);
+
+        // Assert
+        assertTrue(set.size() <= 2 * 1000, "size " + set.size());
+        assertTrue(set.contains(100_000L));
+    }
+
+    @Test
+    void add_concurrent() throws InterruptedException {
+        // Assign
+        ConcurrentLongSet set = new ConcurrentLongSet(100_000, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int thread = 0; thread < 8; thread++) {
+            long offset = thread * 10_000L;
+            executor.execute(() -> {
+                for (long value = 1; value <= 10_000; value++)
+                    set.add(offset + value);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        // Assert
+        assertEquals(80_000, set.size());
+        for (long value = 1; value <= 80_000; value++)
+            assertTrue(set.contains(value));
+    }
+}
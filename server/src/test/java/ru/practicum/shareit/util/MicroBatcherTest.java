@@ -0,0 +1,104 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatcherTest {
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    void load_single() {
+        // Assign
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>(this::query, WINDOW_NANOS, 100);
+        batcher.load(2L);
+
+        // Act
+        long started = System.nanoTime();
+        String result = batcher.load(1L);
+        long elapsed = System.nanoTime() - started;
+
+        // Assert
+        assertEquals("value-1", result);
+        assertNull(batcher.load(-1L));
+        assertEquals(3, queries.get());
+        // Других поисков нет - окно не ждется.
+        assertTrue(elapsed < WINDOW_NANOS, "elapsed " + elapsed);
+    }
+
+    @Test
+    void load_concurrentInFewQueries() throws Exception {
+        // Assign
+        int threads = 64;
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>(keys -> {
+            sleep(2);
+            return query(keys);
+        }, WINDOW_NANOS, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (long key = 1; key <= threads; key++) {
+            long id = key;
+            results.add(executor.submit(() -> {
+                startGate.await();
+                return batcher.load(id);
+            }));
+        }
+        startGate.countDown();
+
+        // Assert
+        for (int i = 0; i < threads; i++)
+            assertEquals("value-" + (i + 1), results.get(i).get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(queries.get() < threads / 4, "queries " + queries.get());
+    }
+
+    @Test
+    void load_failurePropagated() {
+        // Assign
+        MicroBatcher<Long, String> batcher = new MicroBatcher<>(keys -> {
+            throw new IllegalStateException("db down");
+        }, WINDOW_NANOS, 100);
+
+        // Act
+        var e = assertThrows(IllegalStateException.class, () -> batcher.load(1L));
+
+        // Assert
+        assertEquals("db down", e.getMessage());
+    }
+
+    private Map<Long, String> query(Collection<Long> keys) {
+        queries.incrementAndGet();
+        return keys.stream()
+                .filter(key -> key > 0)
+                .collect(Collectors.toMap(Function.identity(), key -> "value-" + key));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.util;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Повторное чтение из кэша второго уровня и кэша запросов не обращается к базе.
+ * Данные сохраняются без транзакции теста: каждое чтение идет в новой сессии, как в запросе к серверу.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest
+class SecondLevelCacheTest {
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository requestRepository;
+    private final UserServiceImpl userService;
+    private Statistics statistics;
+    private User owner;
+    private ItemRequest request;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(User.builder()
+                .name("cache owner")
+                .email("cache-owner@ya.ru")
+                .build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("cache request")
+                .requester(owner)
+                .created(LocalDateTime.now())
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("cache item")
+                .description("cache item")
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (userRepository.existsById(owner.getId()))
+            userService.remove(owner.getId());
+    }
+
+    @Test
+    void findById_fromCache() {
+        // Assign
+        itemRepository.findById(item.getId());
+        statistics.clear();
+
+        // Act
+        Item cached = itemRepository.findById(item.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(statistics.getPrepareStatementCount(), 0L);
+        assertEquals(statistics.getSecondLevelCacheHitCount(), 1L);
+        assertEquals(cached.getOwner().getId(), owner.getId());
+        assertEquals(cached.getRequest().getId(), request.getId());
+    }
+
+    @Test
+    void findByOwner_fromQueryCache() {
+        // Assign
+        itemRepository.findByOwner_Id(owner.getId(), PageRequest.of(0, 10));
+        statistics.clear();
+
+        // Act
+        List<Item> cached = itemRepository.findByOwner_Id(owner.getId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(statistics.getPrepareStatementCount(), 0L);
+        assertEquals(statistics.getQueryCacheHitCount(), 1L);
+        assertEquals(cached.size(), 1);
+        assertEquals(cached.get(0).getId(), item.getId());
+    }
+
+    @Test
+    void findByRequest_fromQueryCache() {
+        // Assign
+        itemRepository.findByRequest_IdIn(List.of(request.getId()));
+        statistics.clear();
+
+        // Act
+        List<Item> cached = itemRepository.findByRequest_IdIn(List.of(request.getId()));
+
+        // Assert
+        assertEquals(statistics.getPrepareStatementCount(), 0L);
+        assertEquals(statistics.getQueryCacheHitCount(), 1L);
+        assertEquals(cached.size(), 1);
+    }
+
+    @Test
+    void findByOwner_invalidatedOnSave() {
+        // Assign
+        itemRepository.findByOwner_Id(owner.getId(), PageRequest.of(0, 10));
+        Item second = itemRepository.save(Item.builder()
+                .name("cache item 2")
+                .description("cache item 2")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        // Act
+        List<Item> items = itemRepository.findByOwner_Id(owner.getId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(items.size(), 2);
+        assertTrue(items.stream().anyMatch(found -> found.getId().equals(second.getId())));
+    }
+
+    @Test
+    void removeUser_evictsCascade() {
+        // Assign
+        itemRepository.findById(item.getId());
+        itemRepository.findByOwner_Id(owner.getId(), PageRequest.of(0, 10));
+
+        // Act
+        userService.remove(owner.getId());
+
+        // Assert
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+        assertTrue(requestRepository.findById(request.getId()).isEmpty());
+        assertTrue(itemRepository.findByOwner_Id(owner.getId(), PageRequest.of(0, 10)).isEmpty());
+    }
+}